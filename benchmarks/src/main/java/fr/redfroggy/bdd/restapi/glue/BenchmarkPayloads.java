@@ -0,0 +1,53 @@
+package fr.redfroggy.bdd.restapi.glue;
+
+import java.util.Map;
+
+/**
+ * Json payloads and step arguments used by the benchmarks
+ */
+final class BenchmarkPayloads {
+
+    private BenchmarkPayloads() {
+    }
+
+    /**
+     * @param users
+     *            number of users in the array
+     * @return json array of users, like the ones returned by GET /users
+     */
+    static String users(int users) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < users; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"id\":\"").append(i)
+                    .append("\",\"firstName\":\"Tony").append(i)
+                    .append("\",\"lastName\":\"Stark\",\"age\":").append(40 + i % 20)
+                    .append(",\"relatedTo\":{\"id\":\"").append(i + 1)
+                    .append("\"},\"sessionIds\":[\"43233333\",\"45654345\"]}");
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * Build a request body referencing scenario scope variables and store the variables in the given map
+     *
+     * @param placeholders
+     *            number of `$variable` references
+     * @param variables
+     *            scenario scope json paths
+     * @return body template
+     */
+    static String template(int placeholders, Map<String, Object> variables) {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < placeholders; i++) {
+            variables.put("var" + i, "value" + i);
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("\"field").append(i).append("\":\"`$var").append(i).append("`\"");
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,89 @@
+package fr.redfroggy.bdd.restapi.glue;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the step definitions hot paths: scenario scope substitution, json path
+ * evaluation, json path assertions and request body parsing.
+ * Run with the gc profiler to get the allocation rate: java -jar target/benchmarks.jar -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StepDefinitionBenchmark {
+
+    // Number of users in the response body: small, medium and huge payloads
+    @Param({"1", "100", "10000"})
+    int users;
+
+    // Number of `$variable` references in the request body
+    @Param({"2", "50"})
+    int placeholders;
+
+    private DefaultRestApiBddStepDefinition stepDefinition;
+
+    private ResponseEntity<String> response;
+
+    private String bodyTemplate;
+
+    private String lastUserPath;
+
+    @Setup
+    public void setUp() {
+        stepDefinition = new DefaultRestApiBddStepDefinition(new TestRestTemplate(), null);
+        response = ResponseEntity.ok(BenchmarkPayloads.users(users));
+        bodyTemplate = BenchmarkPayloads.template(placeholders, stepDefinition.scenarioScope.getJsonPaths());
+        lastUserPath = "$.[" + (users - 1) + "].firstName";
+        stepDefinition.setResponseEntity(response);
+    }
+
+    @Benchmark
+    public String replaceDynamicParameters() {
+        return stepDefinition.replaceDynamicParameters(bodyTemplate, true);
+    }
+
+    @Benchmark
+    public Object getJsonPath() {
+        return stepDefinition.getJsonPath(lastUserPath);
+    }
+
+    @Benchmark
+    public Object getJsonPathNewResponse() {
+        stepDefinition.setResponseEntity(response);
+        return stepDefinition.getJsonPath(lastUserPath);
+    }
+
+    @Benchmark
+    public void checkJsonPath() {
+        stepDefinition.checkJsonPath("$.[0].age", "40", false);
+    }
+
+    @Benchmark
+    public void checkJsonPathArray() {
+        stepDefinition.checkJsonPath("$.[0].sessionIds", "[\"43233333\",\"45654345\"]", false);
+    }
+
+    @Benchmark
+    public Object setBody() throws IOException {
+        stepDefinition.setBody(bodyTemplate);
+        return stepDefinition.body;
+    }
+}
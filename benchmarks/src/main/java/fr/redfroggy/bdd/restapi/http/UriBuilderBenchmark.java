@@ -0,0 +1,62 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the request uri building: a new uri builder per request against the pre-encoded base uri.
+ * Run with the gc profiler to get the allocation rate: java -jar target/benchmarks.jar -prof gc
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UriBuilderBenchmark {
+
+    private static final String BASE_URI = "http://localhost:8080/api";
+
+    private static final String RESOURCE = "/users/1/roles?sort=name";
+
+    // Number of query parameters added by the scenario
+    @Param({"0", "4"})
+    int parameters;
+
+    private Map<String, String> queryParams;
+
+    @Setup
+    public void setUp() {
+        queryParams = new LinkedHashMap<>();
+        for (int i = 0; i < parameters; i++) {
+            queryParams.put("param" + i, "value " + i);
+        }
+    }
+
+    @Benchmark
+    public URI uriComponentsBuilder() {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(BASE_URI + RESOURCE);
+        queryParams.forEach(builder::queryParam);
+        return builder.build().toUri();
+    }
+
+    @Benchmark
+    public URI baseUri() {
+        return BaseUri.of(BASE_URI).resolve(RESOURCE, queryParams);
+    }
+}
@@ -0,0 +1,85 @@
+package fr.redfroggy.bdd.restapi.authentication;
+
+import fr.redfroggy.bdd.restapi.cache.LruCache;
+import fr.redfroggy.bdd.restapi.http.RestTemplateConfigurer;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of the rest templates returned by {@link BddRestTemplateAuthentication#authenticate(String, String)},
+ * by authentication instance and credentials. Switching between users reuses an already configured rest template
+ * and its pooled connections instead of building a new one. The shared cache is configured with the following
+ * system properties:
+ * <ul>
+ * <li>cucumber.restapi.authentication.cache.max-size: maximum number of cached rest templates (default 32)</li>
+ * <li>cucumber.restapi.authentication.cache.ttl: time a rest template is cached in ms, 0 to disable the cache
+ * (default 300000)</li>
+ * </ul>
+ */
+public final class AuthenticatedTemplateCache {
+
+    public static final String PROPERTY_PREFIX = "cucumber.restapi.authentication.cache.";
+
+    // Null when the cache is disabled
+    private final LruCache<Credentials, TestRestTemplate> templates;
+
+    /**
+     * @param maxSize
+     *            maximum number of cached rest templates
+     * @param timeToLive
+     *            time a rest template is cached in ms, 0 to disable the cache
+     */
+    public AuthenticatedTemplateCache(int maxSize, long timeToLive) {
+        this.templates = timeToLive > 0 ? new LruCache<>(maxSize, timeToLive, TimeUnit.MILLISECONDS) : null;
+    }
+
+    /**
+     * @return cache shared by all the scenarios, configured from the system properties
+     */
+    public static AuthenticatedTemplateCache shared() {
+        return SharedCacheHolder.CACHE;
+    }
+
+    /**
+     * Get the rest template authenticated with the given credentials, authenticating if not cached.
+     * The authenticated rest template is configured by the {@link RestTemplateConfigurer} before it is cached
+     *
+     * @param authentication
+     *            authentication mode
+     * @param login
+     *            user login
+     * @param password
+     *            user password
+     * @return authenticated rest template
+     */
+    public TestRestTemplate get(BddRestTemplateAuthentication authentication, String login, String password) {
+        if (templates == null) {
+            return authenticate(authentication, login, password);
+        }
+        // Two authentication beans of the same class may target different servers, they are never shared
+        return templates.get(new Credentials(authentication, login, password),
+                credentials -> authenticate(authentication, login, password));
+    }
+
+    /**
+     * @return cached rest templates, null when the cache is disabled
+     */
+    public LruCache<?, TestRestTemplate> getTemplates() {
+        return templates;
+    }
+
+    private static TestRestTemplate authenticate(BddRestTemplateAuthentication authentication, String login,
+                                                 String password) {
+        TestRestTemplate template = authentication.authenticate(login, password);
+        RestTemplateConfigurer.configure(template.getRestTemplate());
+        return template;
+    }
+
+    // Lazily creates the shared cache on first access
+    private static final class SharedCacheHolder {
+        private static final AuthenticatedTemplateCache CACHE = new AuthenticatedTemplateCache(
+                Integer.getInteger(PROPERTY_PREFIX + "max-size", 32),
+                Long.getLong(PROPERTY_PREFIX + "ttl", 300000));
+    }
+}
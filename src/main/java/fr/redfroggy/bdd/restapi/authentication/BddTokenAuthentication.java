@@ -0,0 +1,62 @@
+package fr.redfroggy.bdd.restapi.authentication;
+
+import org.springframework.boot.test.web.client.TestRestTemplate;
+
+/**
+ * Bearer token authentication: the token of a principal is fetched once from a token endpoint and shared by all
+ * the scenarios and threads through the {@link TokenCache}. Tokens are refreshed in the background before they
+ * expire. Implementations only fetch the tokens, i.e:
+ * <pre>
+ * public BearerToken fetchToken(String login, String password) {
+ *     Map&lt;String, Object&gt; response = template.postForObject("/oauth/token", credentials(login, password), Map.class);
+ *     return BearerToken.of((String) response.get("access_token"),
+ *             Duration.ofSeconds(((Number) response.get("expires_in")).longValue()));
+ * }
+ * </pre>
+ */
+public interface BddTokenAuthentication extends BddRestTemplateAuthentication {
+
+    /**
+     * Fetch a new token from the token endpoint
+     *
+     * @param login
+     *            principal login
+     * @param password
+     *            principal password
+     * @return token
+     */
+    BearerToken fetchToken(String login, String password);
+
+    /**
+     * @return rest template the authenticated rest templates are copied from
+     */
+    TestRestTemplate getTemplate();
+
+    /**
+     * @return cache of the tokens, shared by all the scenarios by default
+     */
+    default TokenCache getTokenCache() {
+        return TokenCache.shared();
+    }
+
+    /**
+     * Get a rest template sending the token of the given principal. The token is fetched if not cached yet
+     *
+     * @param login
+     *            principal login
+     * @param password
+     *            principal password
+     * @return authenticated rest template
+     */
+    @Override
+    default TestRestTemplate authenticate(String login, String password) {
+        TokenCache tokenCache = getTokenCache();
+        tokenCache.getToken(this, login, password);
+
+        // Copy of the template, built by the same builder, without basic authentication
+        TestRestTemplate template = getTemplate().withBasicAuth(null, null);
+        template.getRestTemplate().getClientHttpRequestInitializers()
+                .add(new BearerTokenInitializer(() -> tokenCache.getToken(this, login, password)));
+        return template;
+    }
+}
@@ -0,0 +1,45 @@
+package fr.redfroggy.bdd.restapi.authentication;
+
+import java.time.Duration;
+
+/**
+ * Bearer token issued by a token endpoint
+ */
+public final class BearerToken {
+
+    private final String value;
+
+    // System.nanoTime() value the token expires at
+    private final long expiresAtNanos;
+
+    private BearerToken(String value, long expiresAtNanos) {
+        this.value = value;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    /**
+     * @param value
+     *            token value, sent in the Authorization header
+     * @param expiresIn
+     *            time until the token expires, i.e the expires_in attribute of an OAuth2 token response
+     * @return token
+     */
+    public static BearerToken of(String value, Duration expiresIn) {
+        return new BearerToken(value, System.nanoTime() + expiresIn.toNanos());
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return time until the token expires, negative if expired
+     */
+    public Duration getExpiresIn() {
+        return Duration.ofNanos(expiresAtNanos - System.nanoTime());
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - System.nanoTime() <= 0;
+    }
+}
@@ -0,0 +1,29 @@
+package fr.redfroggy.bdd.restapi.authentication;
+
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestInitializer;
+
+import java.util.function.Supplier;
+
+/**
+ * Request initializer sending the current token of a principal in the Authorization header.
+ * Initializers are applied by both the blocking and the non-blocking request engines, before the step headers:
+ * an Authorization header set by the step replaces the token
+ */
+public final class BearerTokenInitializer implements ClientHttpRequestInitializer {
+
+    private final Supplier<BearerToken> token;
+
+    /**
+     * @param token
+     *            supplier of the current token, called for each request so refreshed tokens are sent
+     */
+    public BearerTokenInitializer(Supplier<BearerToken> token) {
+        this.token = token;
+    }
+
+    @Override
+    public void initialize(ClientHttpRequest request) {
+        request.getHeaders().setBearerAuth(token.get().getValue());
+    }
+}
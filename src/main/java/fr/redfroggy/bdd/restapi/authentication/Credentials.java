@@ -0,0 +1,46 @@
+package fr.redfroggy.bdd.restapi.authentication;
+
+import java.util.Objects;
+
+/**
+ * Cache key: authentication mode and credentials of a principal.
+ * The authentication mode, a class or an authentication instance, is compared by identity
+ */
+final class Credentials {
+
+    private final Object authentication;
+
+    private final String login;
+
+    private final String password;
+
+    Credentials(Object authentication, String login, String password) {
+        this.authentication = authentication;
+        this.login = login;
+        this.password = password;
+    }
+
+    String getLogin() {
+        return login;
+    }
+
+    String getPassword() {
+        return password;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Credentials)) {
+            return false;
+        }
+        Credentials credentials = (Credentials) other;
+        return authentication == credentials.authentication && login.equals(credentials.login)
+                && password.equals(credentials.password);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(System.identityHashCode(authentication), login, password);
+    }
+
+}
@@ -0,0 +1,155 @@
+package fr.redfroggy.bdd.restapi.authentication;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bearer tokens shared by all the scenarios and threads, by principal.
+ * A token is fetched once: concurrent requests for a missing or expired token wait for a single fetch.
+ * Tokens are refreshed in the background before they expire, the current token being used meanwhile.
+ * The refresh margin of the shared cache is set with the cucumber.restapi.authentication.token.refresh-margin
+ * system property, in ms (default 30000)
+ */
+public final class TokenCache {
+
+    public static final String REFRESH_MARGIN_PROPERTY = "cucumber.restapi.authentication.token.refresh-margin";
+
+    // Token of each principal, pending while fetched
+    private final Map<Credentials, CompletableFuture<BearerToken>> tokens = new ConcurrentHashMap<>();
+
+    // Time before the expiry a token is refreshed at
+    private final Duration refreshMargin;
+
+    private final ScheduledExecutorService refreshExecutor;
+
+    private final AtomicLong fetchCount = new AtomicLong();
+
+    /**
+     * @param refreshMargin
+     *            time before the expiry a token is refreshed at
+     */
+    public TokenCache(Duration refreshMargin) {
+        this.refreshMargin = refreshMargin;
+        this.refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cucumber-restapi-token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return cache shared by all the scenarios, configured from the system properties
+     */
+    public static TokenCache shared() {
+        return SharedCacheHolder.CACHE;
+    }
+
+    /**
+     * Get the token of a principal, fetching it if missing or expired
+     *
+     * @param authentication
+     *            token authentication mode, fetching the tokens
+     * @param login
+     *            principal login
+     * @param password
+     *            principal password
+     * @return valid token
+     */
+    public BearerToken getToken(BddTokenAuthentication authentication, String login, String password) {
+        Credentials credentials = new Credentials(authentication.getClass(), login, password);
+        Function<Credentials, BearerToken> fetcher = key -> authentication.fetchToken(login, password);
+        try {
+            return getToken(credentials, fetcher).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of tokens fetched
+     */
+    public long getFetchCount() {
+        return fetchCount.get();
+    }
+
+    /**
+     * Drop all the tokens
+     */
+    public void clear() {
+        tokens.clear();
+    }
+
+    private CompletableFuture<BearerToken> getToken(Credentials credentials,
+                                                    Function<Credentials, BearerToken> fetcher) {
+        while (true) {
+            CompletableFuture<BearerToken> token = tokens.get(credentials);
+            if (token != null && !isExpired(token)) {
+                return token;
+            }
+            // Only the thread replacing the missing or expired token fetches the new one
+            CompletableFuture<BearerToken> next = new CompletableFuture<>();
+            boolean replaced = token == null ? tokens.putIfAbsent(credentials, next) == null
+                    : tokens.replace(credentials, token, next);
+            if (replaced) {
+                try {
+                    next.complete(fetch(credentials, fetcher));
+                    scheduleRefresh(credentials, fetcher, next);
+                } catch (RuntimeException e) {
+                    // Failed fetches are not cached, the next request fetches again
+                    tokens.remove(credentials, next);
+                    next.completeExceptionally(e);
+                }
+                return next;
+            }
+        }
+    }
+
+    private BearerToken fetch(Credentials credentials, Function<Credentials, BearerToken> fetcher) {
+        fetchCount.incrementAndGet();
+        return fetcher.apply(credentials);
+    }
+
+    private void scheduleRefresh(Credentials credentials, Function<Credentials, BearerToken> fetcher,
+                                 CompletableFuture<BearerToken> token) {
+        long delay = token.join().getExpiresIn().minus(refreshMargin).toNanos();
+        if (delay <= 0) {
+            // Short-lived tokens are fetched again when they expire
+            return;
+        }
+        refreshExecutor.schedule(() -> {
+            // The token may have been dropped or replaced meanwhile
+            if (tokens.get(credentials) != token) {
+                return;
+            }
+            try {
+                CompletableFuture<BearerToken> next = CompletableFuture.completedFuture(fetch(credentials, fetcher));
+                if (tokens.replace(credentials, token, next)) {
+                    scheduleRefresh(credentials, fetcher, next);
+                }
+            } catch (RuntimeException e) {
+                // The current token is used until it expires, then fetched again by the next request
+            }
+        }, delay, TimeUnit.NANOSECONDS);
+    }
+
+    private static boolean isExpired(CompletableFuture<BearerToken> token) {
+        return token.isDone() && (token.isCompletedExceptionally() || token.join().isExpired());
+    }
+
+    // Lazily creates the shared cache on first access
+    private static final class SharedCacheHolder {
+        private static final TokenCache CACHE = new TokenCache(
+                Duration.ofMillis(Long.getLong(REFRESH_MARGIN_PROPERTY, 30000)));
+    }
+}
@@ -0,0 +1,157 @@
+package fr.redfroggy.bdd.restapi.cache;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded and thread-safe cache evicting the least recently used entries.
+ * Entries can also expire a given time after they were computed.
+ * Hits, misses, evictions and expirations are counted so the cache efficiency can be checked
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class LruCache<K, V> {
+
+    // Maximum number of entries
+    private final int maxSize;
+
+    // Time to live of the entries in nanoseconds, 0 if entries do not expire
+    private final long timeToLiveNanos;
+
+    // Clock of the entries expiration, in nanoseconds
+    private final LongSupplier nanoClock;
+
+    // Entries in access order, the eldest one is evicted first
+    private final Map<K, V> entries;
+
+    // Time each entry was computed at, only when entries expire
+    private final Map<K, Long> writeTimes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final AtomicLong expirationCount = new AtomicLong();
+
+    public LruCache(int maxSize) {
+        this(maxSize, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param maxSize
+     *            maximum number of entries
+     * @param timeToLive
+     *            time an entry is kept after it was computed, 0 if entries do not expire
+     * @param unit
+     *            time to live unit
+     */
+    public LruCache(int maxSize, long timeToLive, TimeUnit unit) {
+        this(maxSize, unit.toNanos(timeToLive), System::nanoTime);
+    }
+
+    LruCache(int maxSize, long timeToLiveNanos, LongSupplier nanoClock) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        if (timeToLiveNanos < 0) {
+            throw new IllegalArgumentException("Cache time to live must not be negative: " + timeToLiveNanos);
+        }
+        this.maxSize = maxSize;
+        this.timeToLiveNanos = timeToLiveNanos;
+        this.nanoClock = nanoClock;
+        this.writeTimes = timeToLiveNanos > 0 ? new HashMap<>() : null;
+        this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                boolean evict = size() > LruCache.this.maxSize;
+                if (evict) {
+                    evictionCount.incrementAndGet();
+                    if (writeTimes != null) {
+                        writeTimes.remove(eldest.getKey());
+                    }
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Get a cached value, computing and storing it if absent
+     *
+     * @param key
+     *            cache key
+     * @param loader
+     *            function computing the value of a missing key
+     * @return cached value
+     */
+    public synchronized V get(K key, Function<? super K, ? extends V> loader) {
+        V value = entries.get(key);
+        if (value != null) {
+            if (writeTimes == null || nanoClock.getAsLong() - writeTimes.get(key) < timeToLiveNanos) {
+                hitCount.incrementAndGet();
+                return value;
+            }
+            expirationCount.incrementAndGet();
+        }
+        missCount.incrementAndGet();
+        value = loader.apply(key);
+        entries.put(key, value);
+        if (writeTimes != null) {
+            writeTimes.put(key, nanoClock.getAsLong());
+        }
+        return value;
+    }
+
+    /**
+     * Remove an entry
+     *
+     * @param key
+     *            cache key
+     * @return removed value, null if absent
+     */
+    public synchronized V remove(K key) {
+        if (writeTimes != null) {
+            writeTimes.remove(key);
+        }
+        return entries.remove(key);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        if (writeTimes != null) {
+            writeTimes.clear();
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    public long getExpirationCount() {
+        return expirationCount.get();
+    }
+}
@@ -1,22 +1,59 @@
 package fr.redfroggy.bdd.restapi.glue;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.jayway.jsonpath.JsonPath;
 import com.jayway.jsonpath.PathNotFoundException;
 import com.jayway.jsonpath.ReadContext;
+import fr.redfroggy.bdd.restapi.cache.LruCache;
+import fr.redfroggy.bdd.restapi.http.BaseUri;
+import fr.redfroggy.bdd.restapi.http.EngineResponse;
+import fr.redfroggy.bdd.restapi.http.HttpExchange;
+import fr.redfroggy.bdd.restapi.http.HttpExchangeListeners;
+import fr.redfroggy.bdd.restapi.http.RequestEngine;
+import fr.redfroggy.bdd.restapi.http.ResponseCompression;
+import fr.redfroggy.bdd.restapi.http.ResponseCompressionInterceptor;
+import fr.redfroggy.bdd.restapi.http.ResponseTiming;
+import fr.redfroggy.bdd.restapi.http.SpooledResponseBody;
+import fr.redfroggy.bdd.restapi.http.ResponseTimingInterceptor;
+import fr.redfroggy.bdd.restapi.http.RestTemplateConfigurer;
+import fr.redfroggy.bdd.restapi.http.RestTemplateRequestEngine;
+import fr.redfroggy.bdd.restapi.http.UriTemplate;
+import fr.redfroggy.bdd.restapi.jfr.FlightEvents;
+import fr.redfroggy.bdd.restapi.jfr.HttpExchangeRecord;
+import fr.redfroggy.bdd.restapi.jfr.JsonParseRecord;
+import fr.redfroggy.bdd.restapi.jfr.ScopeSubstitutionRecord;
+import fr.redfroggy.bdd.restapi.json.JsonValueMatcher;
+import fr.redfroggy.bdd.restapi.json.JsonValueMatchers;
+import fr.redfroggy.bdd.restapi.json.StreamingJsonPath;
+import fr.redfroggy.bdd.restapi.metrics.LatencyHistogram;
+import fr.redfroggy.bdd.restapi.metrics.ResponseTimes;
+import fr.redfroggy.bdd.restapi.recording.ExchangeRecording;
+import fr.redfroggy.bdd.restapi.recording.RecordingMode;
+import fr.redfroggy.bdd.restapi.recording.RecordingRequestEngine;
 import fr.redfroggy.bdd.restapi.scope.ScenarioScope;
+import fr.redfroggy.bdd.restapi.scope.ScopeTemplate;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
-import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -26,14 +63,49 @@ import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
 
 /**
  * Abstract step definition implementation Http request are made using {@link RestTemplate} RestTemplate
+ * <p>
+ * Concurrency model: a step definition instance is created for each scenario (cucumber-glue scope) and used by the
+ * single thread running the scenario, so the request state ({@link #headers}, {@link #queryParams}, {@link #body},
+ * {@link #responseEntity}...) is thread-confined. The state shared by the scenarios running in parallel is
+ * thread-safe: the rest template bean, configured once, the connection pool, the caches and the feature scopes.
+ * Values stored in feature scope are shared by the scenarios of a feature, such features must not run in parallel
  */
 @SuppressWarnings("unchecked")
 abstract class AbstractBddStepDefinition {
 
+    // Maximum number of requests sent at the same time by the concurrent request steps
+    static final int BATCH_CONCURRENCY = Integer.getInteger("cucumber.restapi.http.batch.concurrency", 8);
+
+    // Threads sending the concurrent requests, shared by all the scenarios
+    private static final ExecutorService BATCH_EXECUTOR = Executors.newFixedThreadPool(BATCH_CONCURRENCY, runnable -> {
+        Thread thread = new Thread(runnable, "cucumber-restapi-batch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Resource written as a uri template followed by the values of its variables, i.e /users/{id} with id = 1
+    private static final Pattern URI_TEMPLATE_RESOURCE = Pattern.compile("^(\\S*\\{[^}]+}\\S*) with (.+)$");
+
+    // System property enabling the streaming mode for all the scenarios
+    static final String STREAMING_PROPERTY = "cucumber.restapi.http.streaming";
+
+    // Maximum size of a streamed response body kept in memory, bigger bodies are spilled to a temporary file
+    static final int STREAMING_MEMORY_THRESHOLD = Integer.getInteger(STREAMING_PROPERTY + ".memory-threshold",
+            1024 * 1024);
+
+    // System property enabling the compression mode for all the scenarios
+    static final String COMPRESSION_PROPERTY = "cucumber.restapi.http.compression";
+
+    // System property enabling the pre-encoded request bodies for all the scenarios
+    static final String PRE_ENCODED_BODY_PROPERTY = "cucumber.restapi.http.body.pre-encoded";
+
     // Stored base uri
     protected String baseUri = "";
 
-    // Parsed http request json body
+    // Parsed base uri, parsed again when the base uri changes
+    private BaseUri parsedBaseUri;
+
+    // Parsed http request json body, or its UTF-8 bytes when pre-encoded bodies are enabled
     protected Object body;
 
     // Rest template
@@ -48,18 +120,66 @@ abstract class AbstractBddStepDefinition {
     // Stored http response
     protected ResponseEntity<String> responseEntity;
 
+    // Timing of the stored http response
+    protected ResponseTiming responseTiming;
+
+    // Response times of the scenario requests, by endpoint: uri template or resource as written in the step
+    protected ResponseTimes responseTimes;
+
+    // Engine sending the http requests
+    protected RequestEngine requestEngine = RequestEngine.fromSystemProperties();
+
+    // Record or replay the exchanges, responses are not streamed when the exchanges are recorded or replayed
+    protected RecordingMode recordingMode = RecordingMode.fromSystemProperties();
+
+    // Recorded exchanges, the shared recording by default
+    protected ExchangeRecording exchangeRecording;
+
+    // Number of times each request of the scenario has been replayed
+    private final Map<String, AtomicInteger> replayCounts = new ConcurrentHashMap<>();
+
+    // If true, response bodies are read as streams and spilled to a temporary file when too big
+    protected boolean streamingMode = Boolean.getBoolean(STREAMING_PROPERTY);
+
+    // Stored http response body when streaming mode is enabled
+    protected SpooledResponseBody streamedBody;
+
+    // If true, gzip and deflate response bodies are requested and decoded while they are read
+    protected boolean compressionMode = Boolean.getBoolean(COMPRESSION_PROPERTY);
+
+    // Wire and decoded sizes of the stored http response body
+    protected ResponseCompression responseCompression;
+
+    // If true, request bodies are validated then sent as UTF-8 bytes instead of being parsed and serialized again
+    protected boolean preEncodedBodyMode = Boolean.getBoolean(PRE_ENCODED_BODY_PROPERTY);
+
+    // Parsed http response json body, dropped each time a new response is stored
+    private ReadContext bodyDocument;
+
+    // Number of response body parses avoided by reusing bodyDocument
+    private int bodyDocumentReuseCount;
+
     protected ObjectMapper objectMapper;
 
-    protected static final ScenarioScope scenarioScope = new ScenarioScope();
+    // Values stored by the current scenario, shared with the other scenarios through its feature scope
+    protected ScenarioScope scenarioScope;
+
+    // Compiled json path queries shared by all scenarios
+    protected static final LruCache<String, JsonPath> jsonPathCache = new LruCache<>(512);
+
+    // Validated request bodies and their UTF-8 bytes shared by all scenarios, the bytes must not be modified
+    protected static final LruCache<String, byte[]> preEncodedBodyCache = new LruCache<>(256);
 
     AbstractBddStepDefinition(TestRestTemplate testRestTemplate) {
         template = testRestTemplate;
         objectMapper = new ObjectMapper();
         headers = new HttpHeaders();
         queryParams = new HashMap<>();
+        scenarioScope = new ScenarioScope();
+        responseTimes = new ResponseTimes();
 
-        // Add support for PATCH requests
-        testRestTemplate.getRestTemplate().setRequestFactory(new HttpComponentsClientHttpRequestFactory());
+        // The rest template bean is shared by the scenarios running in parallel, it is configured once
+        RestTemplateConfigurer.configure(testRestTemplate.getRestTemplate());
     }
 
     /**
@@ -101,7 +221,8 @@ abstract class AbstractBddStepDefinition {
     }
 
     /**
-     * Set the http request body (POST request for example) {@link #body}
+     * Set the http request body (POST request for example) {@link #body}.
+     * When pre-encoded bodies are enabled, the json is only validated, once for a given body
      *
      * @param body
      *            json string body
@@ -111,11 +232,49 @@ abstract class AbstractBddStepDefinition {
     void setBody(String body) throws IOException {
         assertThat(body).isNotEmpty();
         String sanitizedBody = replaceDynamicParameters(body, true);
-        this.body = objectMapper.readValue(sanitizedBody, Object.class);
+
+        JsonParseRecord parseEvent = FlightEvents.shared().jsonParse();
+        parseEvent.begin();
+        if (preEncodedBodyMode) {
+            try {
+                this.body = preEncodedBodyCache.get(sanitizedBody, this::preEncodeBody);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        } else {
+            this.body = objectMapper.readValue(sanitizedBody, Object.class);
+        }
+        parseEvent.end();
+        if (parseEvent.shouldCommit()) {
+            parseEvent.setSource("request");
+            parseEvent.setSize(sanitizedBody.length());
+            parseEvent.commit();
+        }
+    }
+
+    /**
+     * Validate a json request body without building its object graph
+     *
+     * @param body
+     *            json string body
+     * @return UTF-8 bytes of the body
+     */
+    private byte[] preEncodeBody(String body) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            assertThat(parser.nextToken()).isNotNull();
+            parser.skipChildren();
+            // The bytes are sent as they are, trailing content would be sent too
+            assertThat(parser.nextToken()).isNull();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return body.getBytes(StandardCharsets.UTF_8);
     }
 
     /**
-     * Perform an http request Store the http response to responseEntity {@link #responseEntity}
+     * Perform an http request Store the http response to responseEntity {@link #responseEntity}.
+     * The resource can be written as a uri template followed by the values of its variables,
+     * i.e /users/{id} with id = `$userId`: the response times and metrics are then grouped by template
      *
      * @param resource
      *            resource to consume
@@ -126,24 +285,321 @@ abstract class AbstractBddStepDefinition {
         assertThat(resource).isNotEmpty();
         assertThat(method).isNotNull();
 
-        resource = replaceDynamicParameters(resource, true);
+        String stepResource = resource;
+        resource = expandResource(stepResource);
+        String endpoint = getEndpoint(stepResource);
+
+        HttpEntity<Object> httpEntity = buildHttpEntity(method);
+        URI uri = buildUri(resource);
+
+        ResponseCompressionInterceptor.pollCompression();
+
+        HttpExchangeRecord exchangeEvent = FlightEvents.shared().httpExchange();
+        exchangeEvent.begin();
+        long start = System.nanoTime();
+        long firstByteTime;
+        if (streamingMode && recordingMode == RecordingMode.OFF) {
+            firstByteTime = exchangeStreaming(uri, method, httpEntity);
+        } else {
+            EngineResponse response = await(getRequestEngine().exchange(this.template.getRestTemplate(), uri,
+                    method, httpEntity));
+            setResponseEntity(response.getEntity());
+            firstByteTime = response.getFirstByteTime();
+        }
+        long durationNanos = System.nanoTime() - start;
+        exchangeEvent.end();
+        assertThat(responseEntity).isNotNull();
+        responseCompression = ResponseCompressionInterceptor.pollCompression();
+
+        responseTiming = new ResponseTiming(durationNanos, firstByteTime == -1 ? -1 : firstByteTime - start);
+        recordExchange(method, endpoint, uri, responseEntity.getStatusCodeValue(), durationNanos);
+
+        if (exchangeEvent.shouldCommit()) {
+            long responseBytes;
+            if (responseCompression != null) {
+                responseBytes = responseCompression.getWireBytes();
+            } else if (streamedBody != null) {
+                responseBytes = streamedBody.size();
+            } else {
+                responseBytes = getBodyBytes(responseEntity);
+            }
+            commitExchangeEvent(exchangeEvent, method, endpoint, uri, responseEntity.getStatusCodeValue(),
+                    responseBytes, responseTiming.getFirstByteNanos());
+        }
+    }
+
+    /**
+     * Perform http requests concurrently, at most {@link #BATCH_CONCURRENCY} requests are sent at the same time.
+     * Each response is stored in the scenario scope under its alias
+     *
+     * @param resources
+     *            resources to consume by response alias
+     * @param method
+     *            HttpMethod
+     */
+    void requestConcurrently(Map<String, String> resources, HttpMethod method) {
+        assertThat(resources).isNotEmpty();
+        assertThat(method).isNotNull();
+
+        RestTemplate restTemplate = this.template.getRestTemplate();
+        HttpEntity<Object> httpEntity = buildHttpEntity(method);
+        RequestEngine engine = getRequestEngine();
+
+        Map<String, CompletableFuture<ResponseEntity<String>>> responses = new LinkedHashMap<>();
+        resources.forEach((alias, resource) -> {
+            String expandedResource = expandResource(resource);
+            String endpoint = getEndpoint(resource);
+            URI uri = buildUri(expandedResource);
+            responses.put(alias, CompletableFuture.supplyAsync(() -> {
+                HttpExchangeRecord exchangeEvent = FlightEvents.shared().httpExchange();
+                exchangeEvent.begin();
+                long start = System.nanoTime();
+                EngineResponse engineResponse;
+                try {
+                    engineResponse = await(engine.exchange(restTemplate, uri, method, httpEntity));
+                } finally {
+                    // The batch threads are pooled, the statistics of their last response must not be kept
+                    ResponseCompressionInterceptor.pollCompression();
+                    ResponseTimingInterceptor.pollFirstByteTime();
+                }
+                ResponseEntity<String> response = engineResponse.getEntity();
+                recordExchange(method, endpoint, uri, response.getStatusCodeValue(),
+                        System.nanoTime() - start);
+                exchangeEvent.end();
+                if (exchangeEvent.shouldCommit()) {
+                    commitExchangeEvent(exchangeEvent, method, endpoint, uri, response.getStatusCodeValue(),
+                            getBodyBytes(response), engineResponse.getFirstByteTime() == -1 ? -1
+                                    : engineResponse.getFirstByteTime() - start);
+                }
+                return response;
+            }, BATCH_EXECUTOR));
+        });
+
+        responses.forEach((alias, response) -> scenarioScope.getResponses().put(alias, await(response)));
+    }
+
+    /**
+     * Use a response stored by {@link #requestConcurrently(Map, HttpMethod)} as the current http response
+     *
+     * @param alias
+     *            response alias
+     */
+    void selectResponse(String alias) {
+        ResponseEntity<String> response = scenarioScope.getResponses().get(alias);
+        assertThat(response).isNotNull();
+
+        setResponseEntity(response);
+        responseTiming = null;
+        responseCompression = null;
+    }
+
+    /**
+     * @return engine sending the requests, recording or replaying the exchanges in record or replay mode
+     */
+    private RequestEngine getRequestEngine() {
+        if (recordingMode == RecordingMode.OFF) {
+            return requestEngine;
+        }
+        if (exchangeRecording == null) {
+            exchangeRecording = ExchangeRecording.shared();
+        }
+        return new RecordingRequestEngine(requestEngine, exchangeRecording, recordingMode, replayCounts);
+    }
+
+    /**
+     * Replay the recorded responses from their first occurrence: the occurrences of the requests are counted by
+     * scenario
+     */
+    void resetReplayCounts() {
+        replayCounts.clear();
+    }
 
+    private HttpEntity<Object> buildHttpEntity(HttpMethod method) {
         boolean writeMode = HttpMethod.PUT.equals(method) || HttpMethod.POST.equals(method)
                 || HttpMethod.PATCH.equals(method);
 
-        HttpEntity<Object> httpEntity;
+        HttpHeaders headers = this.headers;
+        if (compressionMode) {
+            // The non-blocking engine does not apply the rest template interceptors decoding the responses
+            assertThat(requestEngine).isSameAs(RestTemplateRequestEngine.INSTANCE);
+            if (!headers.containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                headers = new HttpHeaders();
+                headers.putAll(this.headers);
+                headers.set(HttpHeaders.ACCEPT_ENCODING, ResponseCompressionInterceptor.ACCEPT_ENCODING);
+            }
+        }
 
         if (writeMode) {
-            httpEntity = new HttpEntity<>(body, headers);
-        } else {
-            httpEntity = new HttpEntity<>(headers);
+            if (body instanceof byte[] && !headers.containsKey(HttpHeaders.CONTENT_TYPE)) {
+                // Pre-encoded bodies would be sent as application/octet-stream
+                HttpHeaders jsonHeaders = new HttpHeaders();
+                jsonHeaders.putAll(headers);
+                jsonHeaders.setContentType(MediaType.APPLICATION_JSON);
+                headers = jsonHeaders;
+            }
+            return new HttpEntity<>(body, headers);
         }
+        return new HttpEntity<>(headers);
+    }
 
-        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUri + resource);
-        queryParams.forEach(builder::queryParam);
+    /**
+     * Replace the variables of a resource: uri template variables by their values, followed by `with`,
+     * scenario scope variables otherwise
+     *
+     * @param resource
+     *            resource as written in the step
+     * @return expanded resource
+     */
+    private String expandResource(String resource) {
+        Matcher matcher = URI_TEMPLATE_RESOURCE.matcher(resource);
+        if (!matcher.matches()) {
+            return replaceDynamicParameters(resource, true);
+        }
+        Map<String, Object> values = new HashMap<>();
+        for (String binding : matcher.group(2).split(",")) {
+            int separator = binding.indexOf('=');
+            assertThat(separator).as("uri template variable %s", binding).isPositive();
+            values.put(binding.substring(0, separator).trim(),
+                    replaceDynamicParameters(binding.substring(separator + 1).trim(), true));
+        }
+        return UriTemplate.compile(matcher.group(1)).expand(values::get);
+    }
 
-        responseEntity = this.template.exchange(builder.build().toUri(), method, httpEntity, String.class);
-        assertThat(responseEntity).isNotNull();
+    /**
+     * @param resource
+     *            resource as written in the step
+     * @return endpoint identifying the request step: the uri template if any, the resource as written otherwise,
+     *         so that the requests of a step are grouped whatever the values of its scope variables
+     */
+    private static String getEndpoint(String resource) {
+        Matcher matcher = URI_TEMPLATE_RESOURCE.matcher(resource);
+        return matcher.matches() ? matcher.group(1) : resource;
+    }
+
+    private URI buildUri(String resource) {
+        // The base uri is parsed once, then only the resource and the query parameters are encoded
+        if (parsedBaseUri == null || !parsedBaseUri.getSource().equals(baseUri)) {
+            parsedBaseUri = BaseUri.of(baseUri);
+        }
+        return parsedBaseUri.resolve(resource, queryParams);
+    }
+
+    private void recordExchange(HttpMethod method, String endpoint, URI uri, int status, long durationNanos) {
+        responseTimes.record(endpoint, durationNanos);
+        HttpExchangeListeners.notify(new HttpExchange(method, endpoint, uri, status, durationNanos));
+    }
+
+    private static void commitExchangeEvent(HttpExchangeRecord event, HttpMethod method, String endpoint, URI uri,
+                                            int status, long responseBytes, long firstByteNanos) {
+        event.setMethod(method.name());
+        event.setResource(endpoint);
+        event.setUri(uri.toString());
+        event.setStatus(status);
+        event.setResponseBytes(responseBytes);
+        event.setFirstByteNanos(firstByteNanos);
+        event.commit();
+    }
+
+    private static long getBodyBytes(ResponseEntity<String> response) {
+        return response.getBody() == null ? 0 : response.getBody().getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Wait for an http response
+     *
+     * @param future
+     *            response future
+     * @param <T>
+     *            response type
+     * @return http response
+     */
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Perform an http request reading the response body as a stream, the body is stored to {@link #streamedBody}.
+     * Streamed requests are always sent by the rest template
+     *
+     * @param uri
+     *            request uri
+     * @param method
+     *            HttpMethod
+     * @param httpEntity
+     *            request headers and body
+     * @return System.nanoTime() value when the response headers were received, -1 if unknown
+     */
+    private long exchangeStreaming(URI uri, HttpMethod method, HttpEntity<Object> httpEntity) {
+        RestTemplate restTemplate = this.template.getRestTemplate();
+        RestTemplateConfigurer.configure(restTemplate);
+        ResponseTimingInterceptor.pollFirstByteTime();
+
+        ResponseEntity<SpooledResponseBody> response = restTemplate.execute(uri, method,
+                restTemplate.httpEntityCallback(httpEntity, String.class),
+                clientResponse -> new ResponseEntity<SpooledResponseBody>(
+                        SpooledResponseBody.read(clientResponse.getBody(), STREAMING_MEMORY_THRESHOLD),
+                        clientResponse.getHeaders(), clientResponse.getRawStatusCode()));
+        assertThat(response).isNotNull();
+
+        setResponseEntity(ResponseEntity.status(response.getStatusCodeValue()).headers(response.getHeaders()).build());
+        streamedBody = response.getBody();
+
+        Long firstByteTime = ResponseTimingInterceptor.pollFirstByteTime();
+        return firstByteTime == null ? -1 : firstByteTime;
+    }
+
+    /**
+     * Store a new http response {@link #responseEntity} and drop the json document parsed from the previous one
+     *
+     * @param responseEntity
+     *            http response
+     */
+    void setResponseEntity(ResponseEntity<String> responseEntity) {
+        this.responseEntity = responseEntity;
+        this.bodyDocument = null;
+        releaseStreamedBody();
+    }
+
+    /**
+     * Delete the stored streamed response body {@link #streamedBody}
+     */
+    void releaseStreamedBody() {
+        if (streamedBody != null) {
+            streamedBody.close();
+            streamedBody = null;
+        }
+    }
+
+    /**
+     * Get the http response body. In streaming mode, the streamed body is decoded
+     *
+     * @return response body, null if empty
+     */
+    protected String getResponseBody() {
+        if (streamedBody == null) {
+            return responseEntity.getBody();
+        }
+        if (streamedBody.size() == 0) {
+            return null;
+        }
+        MediaType contentType = responseEntity.getHeaders().getContentType();
+        Charset charset = contentType == null || contentType.getCharset() == null ? StandardCharsets.UTF_8
+                : contentType.getCharset();
+        return streamedBody.asString(charset);
+    }
+
+    /**
+     * @return number of times the parsed response body has been reused instead of being parsed again
+     */
+    int getBodyDocumentReuseCount() {
+        return bodyDocumentReuseCount;
     }
 
     /**
@@ -152,7 +608,7 @@ abstract class AbstractBddStepDefinition {
      * @param status
      *            expected/unexpected status
      * @param isNot
-     *            if true, test equality, inequality if false
+     *            if true, test inequality, equality if false
      */
     void checkStatus(int status, boolean isNot) {
         assertThat(status).isGreaterThan(0);
@@ -164,13 +620,75 @@ abstract class AbstractBddStepDefinition {
         }
     }
 
+    /**
+     * Check the response time of the last request
+     *
+     * @param maxMillis
+     *            exclusive maximum response time in milliseconds
+     * @param firstByte
+     *            if true, check the time until the response headers are received, the time until the whole
+     *            response is read otherwise
+     */
+    void checkResponseTime(long maxMillis, boolean firstByte) {
+        assertThat(responseTiming).isNotNull();
+
+        long nanos = firstByte ? responseTiming.getFirstByteNanos() : responseTiming.getTotalNanos();
+        assertThat(nanos).isNotNegative();
+        assertThat(LatencyHistogram.toMillis(nanos)).isLessThan(maxMillis);
+    }
+
+    /**
+     * Check the last response body was received compressed
+     */
+    void checkResponseCompressed() {
+        assertThat(responseCompression).isNotNull();
+        assertThat(responseCompression.getEncoding()).isNotEqualTo(ResponseCompression.IDENTITY);
+    }
+
+    /**
+     * Check the number of bytes of the last response body received on the wire, before decoding
+     *
+     * @param maxKilobytes
+     *            exclusive maximum size in kilobytes
+     */
+    void checkResponseWireSize(long maxKilobytes) {
+        assertThat(responseCompression).isNotNull();
+        assertThat(responseCompression.getWireBytes()).isLessThan(maxKilobytes * 1024);
+    }
+
+    /**
+     * Check a percentile of the response times of the last requests to a resource
+     *
+     * @param percentile
+     *            percentile between 0 and 100, i.e 95 for the p95
+     * @param lastRequests
+     *            number of most recent requests, at most {@link ResponseTimes#WINDOW_SIZE}
+     * @param resource
+     *            uri template or resource as written in the request steps
+     * @param maxMillis
+     *            exclusive maximum response time in milliseconds
+     */
+    void checkResponseTimePercentile(double percentile, int lastRequests, String resource, long maxMillis) {
+        assertThat(lastRequests).isGreaterThan(0);
+        assertThat(lastRequests)
+                .as("Only the last %d response times of a resource are kept", ResponseTimes.WINDOW_SIZE)
+                .isLessThanOrEqualTo(ResponseTimes.WINDOW_SIZE);
+
+        // Response times are grouped by resource as written in the step, its variables are not replaced
+        assertThat(responseTimes.getLast(resource, lastRequests))
+                .as("Response times of the last requests to %s", resource)
+                .hasSize(lastRequests);
+        assertThat(LatencyHistogram.toMillis(responseTimes.getPercentileNanos(resource, lastRequests, percentile)))
+                .isLessThan(maxMillis);
+    }
+
     /**
      * Check header existence
      *
      * @param headerName
      *            name of the header to find
      * @param isNot
-     *            if true, test equality, inequality if false
+     *            if true, test inequality, equality if false
      * @return header values if found, null otherwise
      */
     List<String> checkHeaderExists(String headerName, boolean isNot) {
@@ -194,7 +712,7 @@ abstract class AbstractBddStepDefinition {
      * @param headerValue
      *            expected/unexpected value
      * @param isNot
-     *            if true, test equality, inequality if false
+     *            if true, test inequality, equality if false
      */
     void checkHeaderEqual(String headerName, String headerValue, boolean isNot) {
         assertThat(headerName).isNotEmpty();
@@ -215,6 +733,17 @@ abstract class AbstractBddStepDefinition {
      *             json parse exception
      */
     void checkJsonBody() throws IOException {
+        if (streamedBody != null) {
+            assertThat(streamedBody.size()).isGreaterThan(0);
+            // Check body json structure is valid without loading the whole body
+            try (JsonParser parser = objectMapper.getFactory().createParser(streamedBody.openStream())) {
+                while (parser.nextToken() != null) {
+                    parser.skipChildren();
+                }
+            }
+            return;
+        }
+
         String body = responseEntity.getBody();
         assertThat(body).isNotEmpty();
 
@@ -230,7 +759,7 @@ abstract class AbstractBddStepDefinition {
      */
     void checkBodyContains(String bodyValue) {
         assertThat(bodyValue).isNotEmpty();
-        assertThat(responseEntity.getBody()).contains(bodyValue);
+        assertThat(getResponseBody()).contains(bodyValue);
     }
 
     /**
@@ -245,8 +774,9 @@ abstract class AbstractBddStepDefinition {
     }
 
     void checkJsonPathDoesntExist(String jsonPath) {
-        ReadContext ctx = getBodyDocument();
-        if (ctx != null) {
+        // A streamed body is not parsed: the whole document would be loaded on the heap for nothing
+        boolean hasBody = streamedBody != null ? streamedBody.size() > 0 : getBodyDocument() != null;
+        if (hasBody) {
             assertThat(jsonPath).isNotEmpty();
             /*assertThatThrownBy(() -> ctx.read(jsonPath))
                     .isExactlyInstanceOf(PathNotFoundException.class);*/
@@ -254,50 +784,32 @@ abstract class AbstractBddStepDefinition {
     }
 
     /**
-     * Test json path value
+     * Test json path value. The expected value is converted to the type of the json path value
+     * using the matcher registered for this type
      *
      * @param jsonPath
      *            json path query
      * @param jsonValueString
      *            expected/unexpected json path value
      * @param isNot
-     *            if true, test equality, inequality if false
+     *            if true, test inequality, equality if false
+     * @see JsonValueMatchers
      */
     void checkJsonPath(String jsonPath, String jsonValueString, boolean isNot) {
         Object pathValue = checkJsonPathExists(jsonPath);
         assertThat(String.valueOf(pathValue)).isNotEmpty();
 
         if (pathValue instanceof Collection) {
-            checkJsonValue((Collection) pathValue, jsonValueString, isNot);
-            return;
+            assertThat((Collection) pathValue).isNotEmpty();
         }
-        Object jsonValue = ReflectionTestUtils.invokeMethod(pathValue, "valueOf", jsonValueString);
 
-        if (!isNot) {
-            assertThat(pathValue).isEqualTo(jsonValue);
-        } else {
-            assertThat(pathValue).isNotEqualTo(jsonValue);
-        }
-    }
+        JsonValueMatcher matcher = JsonValueMatchers.forValue(pathValue);
+        Object jsonValue = matcher.parse(jsonValueString);
 
-    /**
-     * Test json path value
-     *
-     * @param pathValue
-     *            json path array value
-     * @param jsonValue
-     *            expected/unexpected json path value
-     * @param isNot
-     *            if true, test equality, inequality if false
-     */
-    private void checkJsonValue(Collection pathValue, String jsonValue, boolean isNot) {
-        assertThat(pathValue).isNotEmpty();
-
-        if (!isNot) {
-            assertThat(pathValue).isEqualTo(JsonPath.parse(jsonValue).json());
-        } else {
-            assertThat(pathValue).isNotEqualTo(JsonPath.parse(jsonValue).json());
-        }
+        // The values must match unless isNot is set
+        assertThat(matcher.matches(pathValue, jsonValue))
+                .as("%s value %s equals %s", jsonPath, pathValue, jsonValue)
+                .isNotEqualTo(isNot);
     }
 
     /**
@@ -323,15 +835,17 @@ abstract class AbstractBddStepDefinition {
      *            header to save
      * @param headerAlias
      *            new header name in the scenario scope
+     * @param featureScope
+     *            if true, store the header in the feature scope to share it with the next scenarios
      */
-    void storeHeader(String headerName, String headerAlias) {
+    void storeHeader(String headerName, String headerAlias, boolean featureScope) {
         assertThat(headerName).isNotEmpty();
         assertThat(headerAlias).isNotEmpty();
 
         List<String> headerValues = checkHeaderExists(headerName, false);
         assertThat(headerValues).isNotEmpty();
 
-        scenarioScope.getHeaders().put(headerAlias, headerValues);
+        getTargetScope(featureScope).getHeaders().put(headerAlias, headerValues);
     }
 
     /**
@@ -341,13 +855,24 @@ abstract class AbstractBddStepDefinition {
      *            json path query
      * @param jsonPathAlias
      *            new json path alias in the scenario scope
+     * @param featureScope
+     *            if true, store the value in the feature scope to share it with the next scenarios
      */
-    void storeJsonPath(String jsonPath, String jsonPathAlias) {
+    void storeJsonPath(String jsonPath, String jsonPathAlias, boolean featureScope) {
         assertThat(jsonPath).isNotEmpty();
         assertThat(jsonPathAlias).isNotEmpty();
 
         Object pathValue = getJsonPath(jsonPath);
-        scenarioScope.getJsonPaths().put(jsonPathAlias, pathValue);
+        assertThat(pathValue).isNotNull();
+        getTargetScope(featureScope).getJsonPaths().put(jsonPathAlias, pathValue);
+    }
+
+    private ScenarioScope getTargetScope(boolean featureScope) {
+        if (!featureScope) {
+            return scenarioScope;
+        }
+        assertThat(scenarioScope.getParent()).isNotNull();
+        return scenarioScope.getParent();
     }
 
     /**
@@ -360,10 +885,10 @@ abstract class AbstractBddStepDefinition {
      */
     void checkScenarioVariable(String property, String value) {
         Object scopeValue;
-        scopeValue = scenarioScope.getJsonPaths().get(property);
+        scopeValue = scenarioScope.getJsonPath(property);
 
         if (scopeValue == null) {
-            scopeValue = scenarioScope.getHeaders().get(property);
+            scopeValue = scenarioScope.getHeader(property);
         }
         assertThat(scopeValue).isNotNull();
 
@@ -375,20 +900,44 @@ abstract class AbstractBddStepDefinition {
     }
 
     /**
-     * Parse the http response json body
+     * Parse the http response json body. The body is parsed only once per response,
+     * the document is then reused by every json path step until a new response is stored
      *
      * @return ReadContext instance
      */
     private ReadContext getBodyDocument() {
 
-        if (responseEntity.getBody() == null) {
+        if (streamedBody == null ? responseEntity.getBody() == null : streamedBody.size() == 0) {
             return null;
         }
 
-        ReadContext ctx = JsonPath.parse(responseEntity.getBody());
-        assertThat(ctx).isNotNull();
+        if (bodyDocument != null) {
+            bodyDocumentReuseCount++;
+            return bodyDocument;
+        }
+
+        JsonParseRecord parseEvent = FlightEvents.shared().jsonParse();
+        parseEvent.begin();
+        if (streamedBody != null) {
+            try (InputStream in = streamedBody.openStream()) {
+                bodyDocument = JsonPath.parse(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else {
+            bodyDocument = JsonPath.parse(responseEntity.getBody());
+        }
+        parseEvent.end();
+        assertThat(bodyDocument).isNotNull();
+
+        if (parseEvent.shouldCommit()) {
+            parseEvent.setSource("response");
+            parseEvent.setSize(streamedBody != null ? streamedBody.size() : responseEntity.getBody().length());
+            parseEvent.setStreamed(streamedBody != null);
+            parseEvent.commit();
+        }
 
-        return ctx;
+        return bodyDocument;
     }
 
     /**
@@ -402,30 +951,66 @@ abstract class AbstractBddStepDefinition {
 
         assertThat(jsonPath).isNotEmpty();
 
+        if (streamedBody != null && streamedBody.size() > 0) {
+            // Simple paths are evaluated on the stream, without parsing the whole body
+            StreamingJsonPath streamingJsonPath = StreamingJsonPath.compile(jsonPath);
+            if (streamingJsonPath.isSupported()) {
+                Object pathValue = readStreamedBody(streamingJsonPath);
+                assertThat(pathValue).isNotNull();
+                return pathValue;
+            }
+        }
+
         ReadContext ctx = getBodyDocument();
 
         if (ctx == null) {
             return null;
         }
 
-        Object pathValue = ctx.read(jsonPath);
+        Object pathValue = ctx.read(jsonPathCache.get(jsonPath, path -> JsonPath.compile(path)));
 
         assertThat(pathValue).isNotNull();
 
         return pathValue;
     }
 
+    private Object readStreamedBody(StreamingJsonPath streamingJsonPath) {
+        try (InputStream in = streamedBody.openStream()) {
+            return streamingJsonPath.read(in, objectMapper);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Replace each `$name` variable of a step argument by its value from the scenario scope
+     *
+     * @param value
+     *            step argument
+     * @param jsonPath
+     *            if true, variables are read from the stored json paths, from the stored headers otherwise
+     * @return step argument with its variables replaced
+     */
     protected String replaceDynamicParameters(String value, boolean jsonPath) {
-        Pattern pattern = Pattern.compile("`\\${1}(.*?)`");
-        Matcher matcher = pattern.matcher(value);
-        if (matcher.find()) {
-            Object scopeValue = jsonPath ? scenarioScope.getJsonPaths().get(matcher.group(1))
-                    : scenarioScope.getHeaders().get(matcher.group(1));
-            assertThat(scopeValue).isNotNull();
+        ScopeTemplate template = ScopeTemplate.compile(value);
+        if (!template.hasVariables()) {
+            return value;
+        }
 
-            return replaceDynamicParameters(value.replace("`$"+ matcher.group(1) +"`",
-                    scopeValue.toString()), jsonPath);
+        ScopeSubstitutionRecord substitutionEvent = FlightEvents.shared().scopeSubstitution();
+        substitutionEvent.begin();
+        String rendered = template.render(name -> {
+            Object scopeValue = jsonPath ? scenarioScope.getJsonPath(name) : scenarioScope.getHeader(name);
+            assertThat(scopeValue).isNotNull();
+            return scopeValue;
+        });
+        substitutionEvent.end();
+        if (substitutionEvent.shouldCommit()) {
+            substitutionEvent.setVariables(template.getVariableCount());
+            substitutionEvent.setLength(value.length());
+            substitutionEvent.setJsonPath(jsonPath);
+            substitutionEvent.commit();
         }
-        return value;
+        return rendered;
     }
 }
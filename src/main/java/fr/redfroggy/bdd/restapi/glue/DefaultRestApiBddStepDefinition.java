@@ -1,6 +1,13 @@
 package fr.redfroggy.bdd.restapi.glue;
 
+import fr.redfroggy.bdd.restapi.authentication.AuthenticatedTemplateCache;
 import fr.redfroggy.bdd.restapi.authentication.BddRestTemplateAuthentication;
+import fr.redfroggy.bdd.restapi.http.RequestEngine;
+import fr.redfroggy.bdd.restapi.scope.FeatureScopes;
+import fr.redfroggy.bdd.restapi.scope.ScenarioScope;
+import io.cucumber.java.After;
+import io.cucumber.java.Before;
+import io.cucumber.java.Scenario;
 import io.cucumber.java.en.Given;
 import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
@@ -24,9 +31,45 @@ public class DefaultRestApiBddStepDefinition extends AbstractBddStepDefinition {
         this.templateAuthentication = templateAuthentication;
     }
 
+    /**
+     * Give the scenario its own scope, backed by the scope of its feature
+     *
+     * @param scenario
+     *            current scenario
+     */
+    @Before
+    public void initScenarioScope(Scenario scenario) {
+        this.scenarioScope = new ScenarioScope(FeatureScopes.get(scenario.getUri().toString()));
+    }
+
+    /**
+     * Count the occurrences of the replayed requests from the start of the scenario
+     */
+    @Before
+    public void initRecording() {
+        this.resetReplayCounts();
+    }
+
+    /**
+     * Delete the temporary files of the streamed response bodies
+     */
+    @After
+    public void releaseResponse() {
+        this.releaseStreamedBody();
+    }
+
+    /**
+     * Authenticate the next requests. Authenticated rest templates are cached by authentication and credentials,
+     * see {@link AuthenticatedTemplateCache}
+     *
+     * @param login
+     *            user login
+     * @param password
+     *            user password
+     */
     @Given("^I authenticate with login/password (.*)/(.*)$")
     public void setAuthenticateUser(String login, String password) {
-        this.template = this.templateAuthentication.authenticate(login, password);
+        this.template = AuthenticatedTemplateCache.shared().get(this.templateAuthentication, login, password);
     }
 
     /**
@@ -41,6 +84,44 @@ public class DefaultRestApiBddStepDefinition extends AbstractBddStepDefinition {
         baseUri = uri;
     }
 
+    /**
+     * Select the engine sending the next requests
+     *
+     * @param engine
+     *            blocking (rest template) or non-blocking (web client)
+     */
+    @Given("^I use the (blocking|non-blocking) http engine$")
+    public void useEngine(String engine) {
+        this.requestEngine = RequestEngine.forName(engine);
+    }
+
+    /**
+     * Read the next response bodies as streams instead of buffering them as strings.
+     * Body path steps are evaluated on the stream, big bodies are spilled to a temporary file
+     */
+    @Given("^I enable http response streaming$")
+    public void enableStreaming() {
+        this.streamingMode = true;
+    }
+
+    /**
+     * Request gzip or deflate compressed response bodies, decoded while they are read.
+     * Requires the blocking http engine
+     */
+    @Given("^I enable http response compression$")
+    public void enableCompression() {
+        this.compressionMode = true;
+    }
+
+    /**
+     * Send the next request bodies as pre-encoded bytes: the json is validated without being parsed
+     * into objects, and is not serialized again for each request
+     */
+    @Given("^I enable pre-encoded http request bodies$")
+    public void enablePreEncodedBodies() {
+        this.preEncodedBodyMode = true;
+    }
+
     /**
      * Set the request body A json string structure is accepted The body will be
      * parse to be sure the json is valid
@@ -159,6 +240,32 @@ public class DefaultRestApiBddStepDefinition extends AbstractBddStepDefinition {
         this.request(resource, HttpMethod.HEAD);
     }
 
+    /**
+     * Perform HTTP requests concurrently. Each response is stored in the scenario scope
+     * under its alias, see {@link #selectResponse(String)}
+     *
+     * @param method
+     *                  HTTP method
+     * @param resources
+     *                  Map of resources to request by response alias
+     */
+    @When("^I send the following (GET|HEAD|DELETE|POST|PUT|PATCH) requests concurrently:$")
+    public void requestConcurrently(String method, Map<String, String> resources) {
+        this.requestConcurrently(resources, HttpMethod.valueOf(method));
+    }
+
+    /**
+     * Use a response stored by a concurrent request step as the current response,
+     * so the next steps check this response
+     *
+     * @param alias
+     *              response alias
+     */
+    @When("^I select the http response stored as (.*)$")
+    public void selectResponse(String alias) {
+        super.selectResponse(alias);
+    }
+
     /**
      * Test response status code is equal to a given status
      *
@@ -181,6 +288,64 @@ public class DefaultRestApiBddStepDefinition extends AbstractBddStepDefinition {
         this.checkStatus(status, true);
     }
 
+    /**
+     * Test the last response body was received compressed
+     */
+    @Then("^http response should be compressed$")
+    public void responseCompressed() {
+        this.checkResponseCompressed();
+    }
+
+    /**
+     * Test the size of the last response body received on the wire, before decoding
+     *
+     * @param maxKilobytes
+     *                  exclusive maximum size in kilobytes
+     */
+    @Then("^http response wire size should be less than (\\d+) KB$")
+    public void responseWireSizeLessThan(long maxKilobytes) {
+        this.checkResponseWireSize(maxKilobytes);
+    }
+
+    /**
+     * Test the response time of the last request
+     *
+     * @param maxMillis
+     *                  exclusive maximum response time in milliseconds
+     */
+    @Then("^http response time should be less than (\\d+) ms$")
+    public void responseTimeLessThan(long maxMillis) {
+        this.checkResponseTime(maxMillis, false);
+    }
+
+    /**
+     * Test the time until the response headers of the last request are received
+     *
+     * @param maxMillis
+     *                  exclusive maximum time to first byte in milliseconds
+     */
+    @Then("^http response time to first byte should be less than (\\d+) ms$")
+    public void firstByteTimeLessThan(long maxMillis) {
+        this.checkResponseTime(maxMillis, true);
+    }
+
+    /**
+     * Test a percentile of the response times of the last requests to a resource
+     *
+     * @param percentile
+     *                     percentile, i.e 95 for the p95
+     * @param lastRequests
+     *                     number of most recent requests
+     * @param resource
+     *                     uri template or resource as written in the request steps
+     * @param maxMillis
+     *                     exclusive maximum response time in milliseconds
+     */
+    @Then("^p(\\d+) response time of the last (\\d+) requests to (.*) should be less than (\\d+) ms$")
+    public void responseTimePercentileLessThan(int percentile, int lastRequests, String resource, long maxMillis) {
+        this.checkResponseTimePercentile(percentile, lastRequests, resource, maxMillis);
+    }
+
     /**
      * Test that a given http header exists
      *
@@ -336,9 +501,9 @@ public class DefaultRestApiBddStepDefinition extends AbstractBddStepDefinition {
     }
 
     /**
-     * Store a given response header to the scenario scope The purpose is to reuse
-     * its value in another scenario The most common use case is the authentication
-     * process
+     * Store a given response header to the scenario scope. The value is only visible
+     * to the next steps of the current scenario, use {@link #storeFeatureResponseHeader(String, String)}
+     * to share it with the next scenarios of the feature
      *
      * @param headerName
      *                    http header name
@@ -349,13 +514,29 @@ public class DefaultRestApiBddStepDefinition extends AbstractBddStepDefinition {
      */
     @Then("^I store the value of http response header (.*) as (.*) in scenario scope$")
     public void storeResponseHeader(String headerName, String headerAlias) {
-        this.storeHeader(headerName, headerAlias);
+        this.storeHeader(headerName, headerAlias, false);
     }
 
     /**
-     * Store a given json path value to the scenario scope The purpose is to reuse
-     * its value in another scenario The most common use case is the authentication
-     * process
+     * Store a given response header to the feature scope The purpose is to reuse
+     * its value in the next scenarios of the feature
+     *
+     * @param headerName
+     *                    http header name
+     * @param headerAlias
+     *                    http header alias (which will be stored in the feature
+     *                    scope)
+     * @see fr.redfroggy.bdd.restapi.scope.FeatureScopes
+     */
+    @Then("^I store the value of http response header (.*) as (.*) in feature scope$")
+    public void storeFeatureResponseHeader(String headerName, String headerAlias) {
+        this.storeHeader(headerName, headerAlias, true);
+    }
+
+    /**
+     * Store a given json path value to the scenario scope. The value is only visible
+     * to the next steps of the current scenario, use {@link #storeFeatureResponseJsonPath(String, String)}
+     * to share it with the next scenarios of the feature
      *
      * @param jsonPath
      *                      json path query
@@ -366,7 +547,23 @@ public class DefaultRestApiBddStepDefinition extends AbstractBddStepDefinition {
      */
     @Then("^I store the value of http body path (.*) as (.*) in scenario scope$")
     public void storeResponseJsonPath(String jsonPath, String jsonPathAlias) {
-        this.storeJsonPath(jsonPath, jsonPathAlias);
+        this.storeJsonPath(jsonPath, jsonPathAlias, false);
+    }
+
+    /**
+     * Store a given json path value to the feature scope The purpose is to reuse
+     * its value in the next scenarios of the feature
+     *
+     * @param jsonPath
+     *                      json path query
+     * @param jsonPathAlias
+     *                      json path alias (which will be stored in the feature
+     *                      scope)
+     * @see fr.redfroggy.bdd.restapi.scope.FeatureScopes
+     */
+    @Then("^I store the value of http body path (.*) as (.*) in feature scope$")
+    public void storeFeatureResponseJsonPath(String jsonPath, String jsonPathAlias) {
+        this.storeJsonPath(jsonPath, jsonPathAlias, true);
     }
 
     /**
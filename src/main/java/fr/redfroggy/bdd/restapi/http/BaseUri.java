@@ -0,0 +1,155 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import fr.redfroggy.bdd.restapi.cache.LruCache;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Base uri of the requests, parsed and encoded once. The request uris are built by appending the resource and the
+ * query parameters to the encoded base uri in a single buffer, then parsed once by {@link URI#create(String)}.
+ * Characters are quoted as by the {@link URI} multi-argument constructors used by {@link UriComponentsBuilder}:
+ * illegal characters, '%' included, are percent-encoded in UTF-8, other non-ASCII characters are kept
+ */
+public final class BaseUri {
+
+    private static final BaseUri EMPTY = new BaseUri("", "");
+
+    // Legal ASCII characters of a path and of a query or fragment
+    private static final boolean[] PATH_CHARACTERS = characters("-_.!~*'():@&=+$,;/");
+
+    private static final boolean[] QUERY_CHARACTERS = characters("-_.!~*'();/?:@&=+$,[]");
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // Estimated length of a query parameter, used to pre-size the output buffer
+    private static final int QUERY_PARAMETER_LENGTH_HINT = 16;
+
+    // Parsed base uris shared by all scenarios
+    private static final LruCache<String, BaseUri> baseUris = new LruCache<>(64);
+
+    private final String source;
+
+    private final String encoded;
+
+    private BaseUri(String source, String encoded) {
+        this.source = source;
+        this.encoded = encoded;
+    }
+
+    /**
+     * Get the parsed base uri of a given text
+     *
+     * @param baseUri
+     *            base uri, i.e http://localhost:8080/api, may be empty
+     * @return parsed base uri
+     */
+    public static BaseUri of(String baseUri) {
+        return baseUris.get(baseUri, BaseUri::parse);
+    }
+
+    static BaseUri parse(String baseUri) {
+        if (baseUri.isEmpty()) {
+            return EMPTY;
+        }
+        UriComponents components = UriComponentsBuilder.fromUriString(baseUri).build();
+        if (components.getQuery() != null || components.getFragment() != null) {
+            throw new IllegalArgumentException("Base uri must not have a query or a fragment: " + baseUri);
+        }
+        return new BaseUri(baseUri, components.toUri().toString());
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Build a request uri
+     *
+     * @param resource
+     *            resource appended to the base uri, with an optional query and fragment, not encoded
+     * @param queryParams
+     *            query parameters appended to the query of the resource, not encoded
+     * @return request uri
+     */
+    public URI resolve(String resource, Map<String, String> queryParams) {
+        StringBuilder uri = new StringBuilder(encoded.length() + resource.length()
+                + queryParams.size() * QUERY_PARAMETER_LENGTH_HINT);
+        uri.append(encoded);
+
+        int fragmentStart = resource.indexOf('#');
+        int queryEnd = fragmentStart == -1 ? resource.length() : fragmentStart;
+        int queryStart = resource.indexOf('?');
+        if (queryStart > queryEnd) {
+            queryStart = -1;
+        }
+
+        appendEncoded(uri, resource, 0, queryStart == -1 ? queryEnd : queryStart, PATH_CHARACTERS);
+        boolean hasQuery = queryStart != -1;
+        if (hasQuery) {
+            uri.append('?');
+            appendEncoded(uri, resource, queryStart + 1, queryEnd, QUERY_CHARACTERS);
+        }
+        for (Map.Entry<String, String> param : queryParams.entrySet()) {
+            uri.append(hasQuery ? '&' : '?');
+            hasQuery = true;
+            appendEncoded(uri, param.getKey(), 0, param.getKey().length(), QUERY_CHARACTERS);
+            if (param.getValue() != null) {
+                uri.append('=');
+                appendEncoded(uri, param.getValue(), 0, param.getValue().length(), QUERY_CHARACTERS);
+            }
+        }
+        if (fragmentStart != -1) {
+            uri.append('#');
+            appendEncoded(uri, resource, fragmentStart + 1, resource.length(), QUERY_CHARACTERS);
+        }
+        return URI.create(uri.toString());
+    }
+
+    @Override
+    public String toString() {
+        return encoded;
+    }
+
+    private static void appendEncoded(StringBuilder uri, String value, int start, int end, boolean[] legal) {
+        // Legal characters are appended by ranges, most values have nothing to encode
+        int rangeStart = start;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (isLegal(c, legal)) {
+                continue;
+            }
+            uri.append(value, rangeStart, i);
+            for (byte b : String.valueOf(c).getBytes(StandardCharsets.UTF_8)) {
+                uri.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+            }
+            rangeStart = i + 1;
+        }
+        uri.append(value, rangeStart, end);
+    }
+
+    private static boolean isLegal(char c, boolean[] legal) {
+        if (c < legal.length) {
+            return legal[c];
+        }
+        return !Character.isSpaceChar(c) && !Character.isISOControl(c);
+    }
+
+    private static boolean[] characters(String punctuation) {
+        boolean[] legal = new boolean[128];
+        for (char c = '0'; c <= '9'; c++) {
+            legal[c] = true;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            legal[c] = true;
+            legal[Character.toUpperCase(c)] = true;
+        }
+        for (char c : punctuation.toCharArray()) {
+            legal[c] = true;
+        }
+        return legal;
+    }
+}
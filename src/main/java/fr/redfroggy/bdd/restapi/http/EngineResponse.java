@@ -0,0 +1,27 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Http response returned by a {@link RequestEngine}
+ */
+public final class EngineResponse {
+
+    private final ResponseEntity<String> entity;
+
+    // System.nanoTime() value when the response status and headers were received, -1 if unknown
+    private final long firstByteTime;
+
+    public EngineResponse(ResponseEntity<String> entity, long firstByteTime) {
+        this.entity = entity;
+        this.firstByteTime = firstByteTime;
+    }
+
+    public ResponseEntity<String> getEntity() {
+        return entity;
+    }
+
+    public long getFirstByteTime() {
+        return firstByteTime;
+    }
+}
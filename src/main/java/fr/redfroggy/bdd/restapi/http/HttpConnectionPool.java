@@ -0,0 +1,311 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.apache.http.HttpHost;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool of keep-alive http connections shared by all the scenarios, so connections to a
+ * given base uri are reused instead of being opened again for each scenario.
+ * Cookies are not stored, so they cannot leak from one scenario to another, and the JVM proxy and TLS system
+ * properties are applied as by {@link HttpClients#createSystem()}.
+ * Gzip and deflate responses are negotiated and decoded by the http client, as by default, unless the request
+ * sets its own Accept-Encoding header (compression mode): it is then sent through a client of the same pool without
+ * content compression, so the {@link ResponseCompressionInterceptor} reads the response as received on the wire.
+ * The shared pool is configured with the following system properties:
+ * <ul>
+ * <li>cucumber.restapi.http.pool.max-total: maximum number of connections (default 200)</li>
+ * <li>cucumber.restapi.http.pool.max-per-route: maximum number of connections per route (default 50)</li>
+ * <li>cucumber.restapi.http.pool.routes: per route limits, i.e http://localhost:8080=10,https://api.io=5</li>
+ * <li>cucumber.restapi.http.pool.idle-timeout: idle connections eviction delay in ms (default 30000)</li>
+ * <li>cucumber.restapi.http.pool.ttl: connections time to live in ms, -1 for no limit (default -1)</li>
+ * </ul>
+ */
+public final class HttpConnectionPool {
+
+    public static final String PROPERTY_PREFIX = "cucumber.restapi.http.pool.";
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    private final CloseableHttpClient httpClient;
+
+    // Client of the same pool leaving the response content encoding to the caller
+    private final CloseableHttpClient wireHttpClient;
+
+    private final ClientHttpRequestFactory requestFactory;
+
+    public HttpConnectionPool(Settings settings) {
+        // The TLS system properties are only read by the default connection manager, the pool must apply them
+        connectionManager = new PoolingHttpClientConnectionManager(RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build(), null, null, null, settings.getTimeToLive(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(settings.getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(settings.getMaxPerRoute());
+        settings.getRoutes().forEach(this::setMaxPerRoute);
+
+        httpClient = newClientBuilder()
+                .evictExpiredConnections()
+                .evictIdleConnections(settings.getIdleTimeout(), TimeUnit.MILLISECONDS)
+                .build();
+        wireHttpClient = newClientBuilder()
+                // The connections are evicted and closed by the default client
+                .setConnectionManagerShared(true)
+                .disableContentCompression()
+                .build();
+        requestFactory = new EncodingRequestFactory(new HttpComponentsClientHttpRequestFactory(httpClient),
+                new HttpComponentsClientHttpRequestFactory(wireHttpClient));
+    }
+
+    private HttpClientBuilder newClientBuilder() {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .useSystemProperties()
+                // The client is shared by all the scenarios, cookies would leak between them
+                .disableCookieManagement();
+    }
+
+    /**
+     * @return pool shared by all the scenarios, configured from the system properties
+     */
+    public static HttpConnectionPool shared() {
+        return SharedPoolHolder.POOL;
+    }
+
+    /**
+     * @return request factory sending requests through the pooled connections
+     */
+    public ClientHttpRequestFactory getRequestFactory() {
+        return requestFactory;
+    }
+
+    /**
+     * Set the maximum number of connections to a given base uri
+     *
+     * @param uri
+     *            base uri, i.e http://localhost:8080
+     * @param max
+     *            maximum number of connections
+     */
+    public void setMaxPerRoute(String uri, int max) {
+        connectionManager.setMaxPerRoute(getRoute(uri), max);
+    }
+
+    /**
+     * @return number of leased, available and pending connections of the whole pool
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * @param uri
+     *            base uri, i.e http://localhost:8080
+     * @return number of leased, available and pending connections to the given base uri
+     */
+    public PoolStats getStats(String uri) {
+        return connectionManager.getStats(getRoute(uri));
+    }
+
+    public void close() {
+        try {
+            wireHttpClient.close();
+            httpClient.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static HttpRoute getRoute(String uri) {
+        URI parsedUri = URI.create(uri);
+        int port = parsedUri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(parsedUri.getScheme()) ? 443 : 80;
+        }
+        return new HttpRoute(new HttpHost(parsedUri.getHost(), port, parsedUri.getScheme()));
+    }
+
+    /**
+     * Request factory choosing the client when the request is sent, once its headers are known
+     */
+    private static final class EncodingRequestFactory implements ClientHttpRequestFactory {
+
+        private final ClientHttpRequestFactory defaultFactory;
+
+        private final ClientHttpRequestFactory wireFactory;
+
+        EncodingRequestFactory(ClientHttpRequestFactory defaultFactory, ClientHttpRequestFactory wireFactory) {
+            this.defaultFactory = defaultFactory;
+            this.wireFactory = wireFactory;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+            return new EncodingRequest(uri, httpMethod);
+        }
+
+        /**
+         * Request buffering its body until it is sent, as the http client requests do by default
+         */
+        private final class EncodingRequest implements ClientHttpRequest {
+
+            private final URI uri;
+
+            private final HttpMethod method;
+
+            private final HttpHeaders headers = new HttpHeaders();
+
+            private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+            EncodingRequest(URI uri, HttpMethod method) {
+                this.uri = uri;
+                this.method = method;
+            }
+
+            @Override
+            public HttpMethod getMethod() {
+                return method;
+            }
+
+            @Override
+            public String getMethodValue() {
+                return method.name();
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+
+            @Override
+            public OutputStream getBody() {
+                return body;
+            }
+
+            @Override
+            public ClientHttpResponse execute() throws IOException {
+                ClientHttpRequestFactory factory = headers.containsKey(HttpHeaders.ACCEPT_ENCODING) ? wireFactory
+                        : defaultFactory;
+                ClientHttpRequest request = factory.createRequest(uri, method);
+                request.getHeaders().putAll(headers);
+                body.writeTo(request.getBody());
+                return request.execute();
+            }
+        }
+    }
+
+    // Lazily creates the shared pool on first access
+    private static final class SharedPoolHolder {
+        private static final HttpConnectionPool POOL = new HttpConnectionPool(Settings.fromSystemProperties());
+    }
+
+    /**
+     * Connection pool settings
+     */
+    public static final class Settings {
+
+        private int maxTotal = 200;
+
+        private int maxPerRoute = 50;
+
+        private Map<String, Integer> routes = new LinkedHashMap<>();
+
+        private long idleTimeout = 30000;
+
+        private long timeToLive = -1;
+
+        /**
+         * @return settings read from the cucumber.restapi.http.pool.* system properties
+         */
+        public static Settings fromSystemProperties() {
+            Settings settings = new Settings();
+            settings.maxTotal = Integer.getInteger(PROPERTY_PREFIX + "max-total", settings.maxTotal);
+            settings.maxPerRoute = Integer.getInteger(PROPERTY_PREFIX + "max-per-route", settings.maxPerRoute);
+            settings.idleTimeout = Long.getLong(PROPERTY_PREFIX + "idle-timeout", settings.idleTimeout);
+            settings.timeToLive = Long.getLong(PROPERTY_PREFIX + "ttl", settings.timeToLive);
+
+            String routes = System.getProperty(PROPERTY_PREFIX + "routes", "");
+            for (String route : routes.split(",")) {
+                int separator = route.lastIndexOf('=');
+                if (separator > 0) {
+                    settings.routes.put(route.substring(0, separator).trim(),
+                            Integer.valueOf(route.substring(separator + 1).trim()));
+                }
+            }
+            return settings;
+        }
+
+        public int getMaxTotal() {
+            return maxTotal;
+        }
+
+        public Settings setMaxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+            return this;
+        }
+
+        public int getMaxPerRoute() {
+            return maxPerRoute;
+        }
+
+        public Settings setMaxPerRoute(int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+            return this;
+        }
+
+        public Map<String, Integer> getRoutes() {
+            return routes;
+        }
+
+        public Settings setMaxPerRoute(String uri, int max) {
+            this.routes.put(uri, max);
+            return this;
+        }
+
+        public long getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public Settings setIdleTimeout(long idleTimeout) {
+            this.idleTimeout = idleTimeout;
+            return this;
+        }
+
+        public long getTimeToLive() {
+            return timeToLive;
+        }
+
+        public Settings setTimeToLive(long timeToLive) {
+            this.timeToLive = timeToLive;
+            return this;
+        }
+    }
+}
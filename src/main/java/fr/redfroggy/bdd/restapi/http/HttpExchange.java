@@ -0,0 +1,50 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+
+/**
+ * Http request sent by a step and the summary of its response
+ */
+public final class HttpExchange {
+
+    private final HttpMethod method;
+
+    // Requested endpoint: uri template of the step if any, resource as written in the step otherwise
+    private final String resource;
+
+    private final URI uri;
+
+    private final int status;
+
+    private final long durationNanos;
+
+    public HttpExchange(HttpMethod method, String resource, URI uri, int status, long durationNanos) {
+        this.method = method;
+        this.resource = resource;
+        this.uri = uri;
+        this.status = status;
+        this.durationNanos = durationNanos;
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    public String getResource() {
+        return resource;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+}
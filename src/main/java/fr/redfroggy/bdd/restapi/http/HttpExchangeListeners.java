@@ -0,0 +1,36 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Registry of the listeners notified of every http exchange made by the steps
+ */
+public final class HttpExchangeListeners {
+
+    private static final List<Consumer<HttpExchange>> listeners = new CopyOnWriteArrayList<>();
+
+    private HttpExchangeListeners() {
+    }
+
+    public static void add(Consumer<HttpExchange> listener) {
+        listeners.add(listener);
+    }
+
+    public static void remove(Consumer<HttpExchange> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Notify all the listeners of a new exchange
+     *
+     * @param exchange
+     *            http exchange
+     */
+    public static void notify(HttpExchange exchange) {
+        for (Consumer<HttpExchange> listener : listeners) {
+            listener.accept(exchange);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package fr.redfroggy.bdd.restapi.http;
+
+/**
+ * Http protocol spoken by the non-blocking engine, set with the cucumber.restapi.http.protocol system property:
+ * <ul>
+ * <li>http1.1: one request per connection at a time (default)</li>
+ * <li>h2: HTTP/2 over TLS negotiated with ALPN, falling back to HTTP/1.1</li>
+ * <li>h2c: HTTP/2 over plaintext connections upgraded from HTTP/1.1, for local test servers</li>
+ * </ul>
+ * With HTTP/2, the concurrent requests to a given origin are multiplexed as streams over a shared connection.
+ * Protocols are named after the reactor netty HttpProtocol constants: reactor netty is an optional dependency,
+ * only loaded by the non-blocking engine
+ */
+public enum HttpTransport {
+
+    HTTP_1_1("http1.1", "HTTP11"),
+    H2("h2", "H2", "HTTP11"),
+    H2C("h2c", "H2C", "HTTP11");
+
+    public static final String PROTOCOL_PROPERTY = "cucumber.restapi.http.protocol";
+
+    private final String name;
+
+    private final String[] protocols;
+
+    HttpTransport(String name, String... protocols) {
+        this.name = name;
+        this.protocols = protocols;
+    }
+
+    /**
+     * @param name
+     *            protocol name: http1.1, h2 or h2c
+     * @return transport
+     */
+    public static HttpTransport forName(String name) {
+        for (HttpTransport transport : values()) {
+            if (transport.name.equals(name)) {
+                return transport;
+            }
+        }
+        throw new IllegalArgumentException("Unknown http protocol: " + name);
+    }
+
+    /**
+     * @return transport set with the cucumber.restapi.http.protocol system property, http1.1 by default
+     */
+    public static HttpTransport fromSystemProperties() {
+        return forName(System.getProperty(PROTOCOL_PROPERTY, HTTP_1_1.name));
+    }
+
+    /**
+     * @return names of the reactor netty HttpProtocol supported by the client, by order of preference
+     */
+    public String[] getProtocols() {
+        return protocols.clone();
+    }
+
+    public boolean isMultiplexed() {
+        return this != HTTP_1_1;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,65 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Optional dependency of the library, needed by an opt-in feature only. The features check their dependency
+ * before loading the classes using it, so a missing dependency fails with a message naming the artifacts to add
+ */
+public final class OptionalDependency {
+
+    /**
+     * Dependencies of the non-blocking http engine
+     */
+    public static final OptionalDependency NON_BLOCKING_ENGINE = new OptionalDependency(
+            "spring-webflux and reactor-netty-http", "org.springframework.web.reactive.function.client.WebClient",
+            "reactor.netty.http.client.HttpClient");
+
+    /**
+     * Dependency of the suite metrics, exported in the Prometheus text format
+     */
+    public static final OptionalDependency PROMETHEUS_METRICS = new OptionalDependency(
+            "micrometer-registry-prometheus", "io.micrometer.prometheus.PrometheusMeterRegistry");
+
+    // Maven artifacts to add to the classpath
+    private final String artifacts;
+
+    // Classes of the artifacts
+    private final String[] classNames;
+
+    OptionalDependency(String artifacts, String... classNames) {
+        this.artifacts = artifacts;
+        this.classNames = classNames;
+    }
+
+    /**
+     * @return true if the classes of the dependency are on the classpath
+     */
+    public boolean isPresent() {
+        for (String className : classNames) {
+            if (!ClassUtils.isPresent(className, OptionalDependency.class.getClassLoader())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check the dependency is on the classpath
+     *
+     * @param feature
+     *            feature needing the dependency
+     * @throws IllegalStateException
+     *             if the dependency is missing
+     */
+    public void require(String feature) {
+        if (!isPresent()) {
+            throw new IllegalStateException(feature + " requires " + artifacts + " on the classpath");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return artifacts;
+    }
+}
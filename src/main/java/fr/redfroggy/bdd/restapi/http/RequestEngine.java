@@ -0,0 +1,61 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Engine sending the http requests of the steps.
+ * The engine is selected with the cucumber.restapi.http.engine system property (blocking or non-blocking)
+ * or with the "I use the non-blocking http engine" step
+ */
+public interface RequestEngine {
+
+    String ENGINE_PROPERTY = "cucumber.restapi.http.engine";
+
+    /**
+     * Send an http request
+     *
+     * @param restTemplate
+     *            rest template of the scenario, holding its authentication
+     * @param uri
+     *            request uri
+     * @param method
+     *            http method
+     * @param httpEntity
+     *            request headers and body
+     * @return future completed with the response
+     */
+    CompletableFuture<EngineResponse> exchange(RestTemplate restTemplate, URI uri, HttpMethod method,
+                                               HttpEntity<?> httpEntity);
+
+    /**
+     * @param name
+     *            engine name: blocking or non-blocking
+     * @return engine
+     */
+    static RequestEngine forName(String name) {
+        switch (name) {
+            case "blocking":
+                return RestTemplateRequestEngine.INSTANCE;
+            case "non-blocking":
+                // The engine class is not loaded without its optional dependencies
+                OptionalDependency.NON_BLOCKING_ENGINE.require("The non-blocking http engine");
+                return WebClientRequestEngine.shared();
+            default:
+                throw new IllegalArgumentException("Unknown http engine: " + name);
+        }
+    }
+
+    /**
+     * @return engine set with the cucumber.restapi.http.engine system property. Blocking by default,
+     *         non-blocking by default when an HTTP/2 protocol is set, see {@link HttpTransport}
+     */
+    static RequestEngine fromSystemProperties() {
+        String defaultEngine = HttpTransport.fromSystemProperties().isMultiplexed() ? "non-blocking" : "blocking";
+        return forName(System.getProperty(ENGINE_PROPERTY, defaultEngine));
+    }
+}
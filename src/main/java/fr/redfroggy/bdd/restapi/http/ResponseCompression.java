@@ -0,0 +1,59 @@
+package fr.redfroggy.bdd.restapi.http;
+
+/**
+ * Transfer statistics of a response body: bytes received on the wire, bytes after decoding
+ * and time spent decoding, in nanoseconds. Final once the body has been read
+ */
+public final class ResponseCompression {
+
+    public static final String IDENTITY = "identity";
+
+    // Content encoding of the response, identity when not compressed
+    private final String encoding;
+
+    private long wireBytes;
+
+    private long decodedBytes;
+
+    private long decodeNanos;
+
+    ResponseCompression(String encoding) {
+        this.encoding = encoding;
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+
+    public boolean isCompressed() {
+        return !IDENTITY.equals(encoding);
+    }
+
+    public long getWireBytes() {
+        return wireBytes;
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes;
+    }
+
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    /**
+     * @return decoded bytes by wire byte, 1 when not compressed
+     */
+    public double getRatio() {
+        return wireBytes == 0 ? 1 : (double) decodedBytes / wireBytes;
+    }
+
+    void addWireBytes(long bytes) {
+        wireBytes += bytes;
+    }
+
+    void addDecodedBytes(long bytes, long nanos) {
+        decodedBytes += bytes;
+        decodeNanos += nanos;
+    }
+}
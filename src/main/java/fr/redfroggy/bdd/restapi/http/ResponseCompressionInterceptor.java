@@ -0,0 +1,240 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Interceptor decoding gzip and deflate response bodies while they are read, counting the bytes received
+ * on the wire and the decoded bytes. The statistics of the last response are kept for the current thread.
+ * Responses with another content encoding (i.e br) are not decoded
+ */
+public final class ResponseCompressionInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final ResponseCompressionInterceptor INSTANCE = new ResponseCompressionInterceptor();
+
+    // Encodings advertised in compression mode
+    public static final String ACCEPT_ENCODING = "gzip, deflate";
+
+    private static final ThreadLocal<ResponseCompression> compression = new ThreadLocal<>();
+
+    private ResponseCompressionInterceptor() {
+    }
+
+    /**
+     * Add the interceptor to a rest template if not already present
+     *
+     * @param restTemplate
+     *            rest template
+     */
+    public static void install(RestTemplate restTemplate) {
+        synchronized (restTemplate) {
+            if (!restTemplate.getInterceptors().contains(INSTANCE)) {
+                List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(restTemplate.getInterceptors());
+                interceptors.add(INSTANCE);
+                restTemplate.setInterceptors(interceptors);
+            }
+        }
+    }
+
+    /**
+     * Get and clear the statistics of the last response received by the current thread
+     *
+     * @return statistics, null if unknown
+     */
+    public static ResponseCompression pollCompression() {
+        ResponseCompression last = compression.get();
+        compression.remove();
+        return last;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+
+        String encoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        encoding = encoding == null ? ResponseCompression.IDENTITY : encoding.trim().toLowerCase(Locale.ROOT);
+        boolean decoded = isDecoded(encoding);
+
+        ResponseCompression stats = new ResponseCompression(decoded ? encoding : ResponseCompression.IDENTITY);
+        compression.set(stats);
+        return new DecodedResponse(response, stats, decoded);
+    }
+
+    private static boolean isDecoded(String encoding) {
+        return "gzip".equals(encoding) || "x-gzip".equals(encoding) || "deflate".equals(encoding);
+    }
+
+    static InputStream decode(InputStream wire, String encoding) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(wire, 2);
+        byte[] header = new byte[2];
+        int read = 0;
+        while (read < header.length) {
+            int count = pushback.read(header, read, header.length - read);
+            if (count == -1) {
+                break;
+            }
+            read += count;
+        }
+        if (read == 0) {
+            // Empty bodies, i.e HEAD responses, are not encoded
+            return pushback;
+        }
+        pushback.unread(header, 0, read);
+
+        if ("deflate".equals(encoding)) {
+            // Deflate bodies should be zlib wrapped, some servers send raw deflate data
+            boolean zlib = read == 2 && (header[0] & 0x0F) == 8
+                    && ((header[0] & 0xFF) << 8 | header[1] & 0xFF) % 31 == 0;
+            return new InflaterInputStream(pushback, new Inflater(!zlib));
+        }
+        return new GZIPInputStream(pushback);
+    }
+
+    /**
+     * Response which body is decoded while it is read
+     */
+    private static final class DecodedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse response;
+
+        private final ResponseCompression stats;
+
+        private final boolean decoded;
+
+        private final HttpHeaders headers;
+
+        private InputStream body;
+
+        DecodedResponse(ClientHttpResponse response, ResponseCompression stats, boolean decoded) {
+            this.response = response;
+            this.stats = stats;
+            this.decoded = decoded;
+            this.headers = new HttpHeaders();
+            this.headers.putAll(response.getHeaders());
+            if (decoded) {
+                // The content length is the wire size, not the decoded size
+                this.headers.remove(HttpHeaders.CONTENT_LENGTH);
+            }
+        }
+
+        @Override
+        public HttpStatus getStatusCode() throws IOException {
+            return response.getStatusCode();
+        }
+
+        @Override
+        public int getRawStatusCode() throws IOException {
+            return response.getRawStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return response.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                WireInputStream wire = new WireInputStream(response.getBody(), stats);
+                body = decoded ? new DecodingInputStream(decode(wire, stats.getEncoding()), wire, stats) : wire;
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            response.close();
+        }
+    }
+
+    /**
+     * Count the bytes received on the wire and the time spent waiting for them
+     */
+    private static final class WireInputStream extends FilterInputStream {
+
+        private final ResponseCompression stats;
+
+        private long readNanos;
+
+        WireInputStream(InputStream in, ResponseCompression stats) {
+            super(in);
+            this.stats = stats;
+        }
+
+        @Override
+        public int read() throws IOException {
+            long start = System.nanoTime();
+            int value = super.read();
+            readNanos += System.nanoTime() - start;
+            if (value != -1) {
+                stats.addWireBytes(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            int read = super.read(buffer, offset, length);
+            readNanos += System.nanoTime() - start;
+            if (read > 0) {
+                stats.addWireBytes(read);
+            }
+            return read;
+        }
+    }
+
+    /**
+     * Count the decoded bytes and the time spent decoding them, the time spent reading the wire excluded
+     */
+    private static final class DecodingInputStream extends FilterInputStream {
+
+        private final WireInputStream wire;
+
+        private final ResponseCompression stats;
+
+        DecodingInputStream(InputStream in, WireInputStream wire, ResponseCompression stats) {
+            super(in);
+            this.wire = wire;
+            this.stats = stats;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = System.nanoTime();
+            long wireNanos = wire.readNanos;
+            int read = super.read(buffer, offset, length);
+            long nanos = System.nanoTime() - start - (wire.readNanos - wireNanos);
+            stats.addDecodedBytes(Math.max(read, 0), nanos);
+            return read;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package fr.redfroggy.bdd.restapi.http;
+
+/**
+ * Timing of an http exchange, in nanoseconds
+ */
+public final class ResponseTiming {
+
+    private final long totalNanos;
+
+    // Time until the response status and headers are received, -1 if unknown
+    private final long firstByteNanos;
+
+    public ResponseTiming(long totalNanos, long firstByteNanos) {
+        this.totalNanos = totalNanos;
+        this.firstByteNanos = firstByteNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getFirstByteNanos() {
+        return firstByteNanos;
+    }
+}
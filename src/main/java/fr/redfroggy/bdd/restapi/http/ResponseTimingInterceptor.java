@@ -0,0 +1,60 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Interceptor recording when the response status and headers of a request are received,
+ * before its body is read. The time is kept for the current thread
+ */
+public final class ResponseTimingInterceptor implements ClientHttpRequestInterceptor {
+
+    public static final ResponseTimingInterceptor INSTANCE = new ResponseTimingInterceptor();
+
+    private static final ThreadLocal<Long> firstByteTime = new ThreadLocal<>();
+
+    private ResponseTimingInterceptor() {
+    }
+
+    /**
+     * Add the interceptor to a rest template if not already present
+     *
+     * @param restTemplate
+     *            rest template
+     */
+    public static void install(RestTemplate restTemplate) {
+        synchronized (restTemplate) {
+            if (!restTemplate.getInterceptors().contains(INSTANCE)) {
+                List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(restTemplate.getInterceptors());
+                interceptors.add(INSTANCE);
+                restTemplate.setInterceptors(interceptors);
+            }
+        }
+    }
+
+    /**
+     * Get and clear the time the last response headers were received by the current thread
+     *
+     * @return {@link System#nanoTime()} value, null if unknown
+     */
+    public static Long pollFirstByteTime() {
+        Long time = firstByteTime.get();
+        firstByteTime.remove();
+        return time;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        firstByteTime.set(System.nanoTime());
+        return response;
+    }
+}
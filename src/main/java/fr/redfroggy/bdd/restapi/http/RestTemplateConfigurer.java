@@ -0,0 +1,50 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Configure the rest templates sending the step requests: pooled connections, timing and compression interceptors.
+ * A rest template is configured once, before it is shared by concurrent scenarios: changing the request factory
+ * or the interceptors of a rest template while another thread sends a request through it is not safe
+ */
+public final class RestTemplateConfigurer {
+
+    // Configured rest templates, dropped once garbage collected
+    private static final Set<RestTemplate> configured = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private RestTemplateConfigurer() {
+    }
+
+    /**
+     * Configure a rest template if not already configured
+     *
+     * @param restTemplate
+     *            rest template
+     * @return configured rest template
+     */
+    public static RestTemplate configure(RestTemplate restTemplate) {
+        synchronized (restTemplate) {
+            if (configured.add(restTemplate)) {
+                // Add support for PATCH requests, connections are pooled and reused by all the scenarios
+                restTemplate.setRequestFactory(HttpConnectionPool.shared().getRequestFactory());
+                ResponseTimingInterceptor.install(restTemplate);
+                ResponseCompressionInterceptor.install(restTemplate);
+            }
+        }
+        return restTemplate;
+    }
+
+    /**
+     * @param restTemplate
+     *            rest template
+     * @return true if the rest template is configured
+     */
+    public static boolean isConfigured(RestTemplate restTemplate) {
+        return configured.contains(restTemplate);
+    }
+}
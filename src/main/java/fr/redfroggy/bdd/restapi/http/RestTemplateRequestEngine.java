@@ -0,0 +1,37 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Blocking engine, the request is sent by the rest template on the calling thread
+ */
+public final class RestTemplateRequestEngine implements RequestEngine {
+
+    public static final RestTemplateRequestEngine INSTANCE = new RestTemplateRequestEngine();
+
+    private RestTemplateRequestEngine() {
+    }
+
+    @Override
+    public CompletableFuture<EngineResponse> exchange(RestTemplate restTemplate, URI uri, HttpMethod method,
+                                                      HttpEntity<?> httpEntity) {
+        RestTemplateConfigurer.configure(restTemplate);
+        ResponseTimingInterceptor.pollFirstByteTime();
+
+        CompletableFuture<EngineResponse> future = new CompletableFuture<>();
+        try {
+            ResponseEntity<String> entity = restTemplate.exchange(uri, method, httpEntity, String.class);
+            Long firstByteTime = ResponseTimingInterceptor.pollFirstByteTime();
+            future.complete(new EngineResponse(entity, firstByteTime == null ? -1 : firstByteTime));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+}
@@ -0,0 +1,126 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+
+/**
+ * Response body read from a stream. Small bodies are kept in memory,
+ * bigger bodies are spilled to a temporary file deleted when the body is closed
+ */
+public final class SpooledResponseBody implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    // Body content if kept in memory, null if spilled to a file
+    private final byte[] content;
+
+    private final File file;
+
+    private final long size;
+
+    private SpooledResponseBody(byte[] content, File file, long size) {
+        this.content = content;
+        this.file = file;
+        this.size = size;
+    }
+
+    /**
+     * Consume a response body stream
+     *
+     * @param in
+     *            response body stream
+     * @param memoryThreshold
+     *            maximum number of bytes kept in memory
+     * @return spooled body
+     * @throws IOException
+     *             read or write error
+     */
+    public static SpooledResponseBody read(InputStream in, int memoryThreshold) throws IOException {
+        ByteArrayOutputStream memory = new ByteArrayOutputStream(Math.min(memoryThreshold, BUFFER_SIZE));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long size = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            size += read;
+            if (size > memoryThreshold) {
+                return spill(memory, buffer, read, in, size);
+            }
+            memory.write(buffer, 0, read);
+        }
+        return new SpooledResponseBody(memory.toByteArray(), null, size);
+    }
+
+    private static SpooledResponseBody spill(ByteArrayOutputStream memory, byte[] buffer, int read, InputStream in,
+                                             long size) throws IOException {
+        File file = File.createTempFile("cucumber-restapi-", ".body");
+        file.deleteOnExit();
+        try (OutputStream out = new FileOutputStream(file)) {
+            memory.writeTo(out);
+            out.write(buffer, 0, read);
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                out.write(buffer, 0, read);
+            }
+        }
+        return new SpooledResponseBody(null, file, size);
+    }
+
+    /**
+     * @return new stream reading the body from the start
+     */
+    public InputStream openStream() {
+        if (content != null) {
+            return new ByteArrayInputStream(content);
+        }
+        try {
+            return new FileInputStream(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decode the whole body, only for the steps needing the raw body
+     *
+     * @param charset
+     *            body charset
+     * @return decoded body
+     */
+    public String asString(Charset charset) {
+        try (InputStream in = openStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.min(size, Integer.MAX_VALUE));
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), charset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public boolean isSpilled() {
+        return file != null;
+    }
+
+    @Override
+    public void close() {
+        if (file != null && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.URI;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Connections opened and requests (streams) sent to each origin by the non-blocking engine.
+ * With HTTP/2, many streams share a connection: the number of streams per connection and the maximum
+ * number of concurrent streams show the connections saved by the multiplexing
+ */
+public final class TransportStats {
+
+    // Stats by origin, i.e "localhost:8080"
+    private final Map<String, OriginStats> origins = new ConcurrentHashMap<>();
+
+    /**
+     * @param origin
+     *            origin, i.e "localhost:8080"
+     * @return stats of the given origin, null if no request was sent to it
+     */
+    public OriginStats getStats(String origin) {
+        return origins.get(origin);
+    }
+
+    /**
+     * @return stats by origin, sorted by origin
+     */
+    public Map<String, OriginStats> getOrigins() {
+        return new TreeMap<>(origins);
+    }
+
+    public void clear() {
+        origins.clear();
+    }
+
+    void connectionOpened(SocketAddress remoteAddress) {
+        if (remoteAddress instanceof InetSocketAddress) {
+            InetSocketAddress address = (InetSocketAddress) remoteAddress;
+            getOrCreate(address.getHostString() + ":" + address.getPort()).connections.incrementAndGet();
+        }
+    }
+
+    OriginStats streamOpened(URI uri) {
+        OriginStats stats = getOrCreate(getOrigin(uri));
+        stats.streams.incrementAndGet();
+        stats.maxConcurrentStreams.accumulateAndGet(stats.activeStreams.incrementAndGet(), Math::max);
+        return stats;
+    }
+
+    private OriginStats getOrCreate(String origin) {
+        return origins.computeIfAbsent(origin, key -> new OriginStats());
+    }
+
+    static String getOrigin(URI uri) {
+        int port = uri.getPort();
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+        return uri.getHost() + ":" + port;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format("%-40s %12s %10s %16s %16s%n",
+                "Origin", "Connections", "Streams", "Streams/conn", "Max concurrent"));
+        getOrigins().forEach((origin, stats) -> builder.append(String.format("%-40s %12d %10d %16.1f %16d%n",
+                origin, stats.getConnections(), stats.getStreams(), stats.getStreamsPerConnection(),
+                stats.getMaxConcurrentStreams())));
+        return builder.toString();
+    }
+
+    /**
+     * Connections and streams of an origin
+     */
+    public static final class OriginStats {
+
+        private final AtomicLong connections = new AtomicLong();
+
+        private final AtomicLong streams = new AtomicLong();
+
+        private final AtomicInteger activeStreams = new AtomicInteger();
+
+        private final AtomicInteger maxConcurrentStreams = new AtomicInteger();
+
+        /**
+         * @return number of physical connections opened
+         */
+        public long getConnections() {
+            return connections.get();
+        }
+
+        /**
+         * @return number of requests sent
+         */
+        public long getStreams() {
+            return streams.get();
+        }
+
+        /**
+         * @return number of requests in flight
+         */
+        public int getActiveStreams() {
+            return activeStreams.get();
+        }
+
+        /**
+         * @return highest number of requests in flight at the same time
+         */
+        public int getMaxConcurrentStreams() {
+            return maxConcurrentStreams.get();
+        }
+
+        /**
+         * @return average number of requests sent per connection
+         */
+        public double getStreamsPerConnection() {
+            long opened = connections.get();
+            return opened == 0 ? 0 : (double) streams.get() / opened;
+        }
+
+        void streamClosed() {
+            activeStreams.decrementAndGet();
+        }
+    }
+}
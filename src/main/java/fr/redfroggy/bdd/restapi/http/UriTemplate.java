@@ -0,0 +1,130 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import fr.redfroggy.bdd.restapi.cache.LruCache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Resource written as a uri template, i.e /users/{id}/roles/{role}, compiled into literal and variable segments.
+ * The template identifies the endpoint of the requests whatever the values of its variables, so response times and
+ * metrics are grouped by endpoint. Templates are compiled once per source text and expanded in a single pass
+ */
+public final class UriTemplate {
+
+    private static final char VARIABLE_START = '{';
+
+    private static final char VARIABLE_END = '}';
+
+    // Estimated length of an expanded variable, used to pre-size the output buffer
+    private static final int VARIABLE_LENGTH_HINT = 8;
+
+    // Compiled templates shared by all scenarios
+    private static final LruCache<String, UriTemplate> templates = new LruCache<>(1024);
+
+    private final String source;
+
+    // Literal segments, there is always one more literal than variables
+    private final String[] literals;
+
+    // Variable names, the variable i is expanded between the literals i and i+1
+    private final String[] variables;
+
+    private final int literalsLength;
+
+    private UriTemplate(String source, List<String> literals, List<String> variables) {
+        this.source = source;
+        this.literals = literals.toArray(new String[0]);
+        this.variables = variables.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    /**
+     * Get the compiled template of a given resource
+     *
+     * @param source
+     *            resource containing {name} variables
+     * @return compiled template
+     */
+    public static UriTemplate compile(String source) {
+        return templates.get(source, UriTemplate::parse);
+    }
+
+    /**
+     * @return cache of the compiled templates
+     */
+    public static LruCache<String, UriTemplate> getCache() {
+        return templates;
+    }
+
+    static UriTemplate parse(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+
+        int literalStart = 0;
+        int start;
+        while ((start = source.indexOf(VARIABLE_START, literalStart)) != -1) {
+            int end = source.indexOf(VARIABLE_END, start + 1);
+            if (end == -1) {
+                break;
+            }
+            literals.add(source.substring(literalStart, start));
+            variables.add(source.substring(start + 1, end).trim());
+            literalStart = end + 1;
+        }
+        literals.add(source.substring(literalStart));
+
+        return new UriTemplate(source, literals, variables);
+    }
+
+    public boolean hasVariables() {
+        return variables.length > 0;
+    }
+
+    /**
+     * @return variable names, in the template order
+     */
+    public List<String> getVariableNames() {
+        return Collections.unmodifiableList(Arrays.asList(variables));
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Replace each variable by its value. Values are inserted as is, the uri is encoded when the request is built
+     *
+     * @param resolver
+     *            function returning the value of a variable name
+     * @return expanded resource
+     * @throws IllegalArgumentException
+     *             if a variable has no value
+     */
+    public String expand(Function<String, Object> resolver) {
+        if (!hasVariables()) {
+            return source;
+        }
+        StringBuilder builder = new StringBuilder(literalsLength + variables.length * VARIABLE_LENGTH_HINT);
+        for (int i = 0; i < variables.length; i++) {
+            Object value = resolver.apply(variables[i]);
+            if (value == null) {
+                throw new IllegalArgumentException("No value for the variable " + variables[i] + " of " + source);
+            }
+            builder.append(literals[i]).append(value);
+        }
+        return builder.append(literals[variables.length]).toString();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -0,0 +1,154 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestInitializer;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking engine, requests are sent by a {@link WebClient} shared by all the scenarios.
+ * The network I/O of every scenario is multiplexed over a few event loop threads.
+ * Headers set by the rest template request initializers (i.e basic authentication) are sent,
+ * rest template interceptors are not applied.
+ * The http protocol is set with the cucumber.restapi.http.protocol system property, see {@link HttpTransport}.
+ * Requires the optional spring-webflux and reactor-netty-http dependencies, see {@link OptionalDependency}
+ */
+public final class WebClientRequestEngine implements RequestEngine {
+
+    private final WebClient webClient;
+
+    private final TransportStats stats = new TransportStats();
+
+    /**
+     * @param transport
+     *            http protocol spoken by the engine
+     */
+    public WebClientRequestEngine(HttpTransport transport) {
+        this(HttpClient.create().protocol(Arrays.stream(transport.getProtocols()).map(HttpProtocol::valueOf)
+                .toArray(HttpProtocol[]::new)));
+    }
+
+    public WebClientRequestEngine(HttpClient httpClient) {
+        this.webClient = WebClient.builder()
+                // Only the connections are initialized, HTTP/2 streams are not
+                .clientConnector(new ReactorClientHttpConnector(httpClient.doOnChannelInit(
+                        (observer, channel, remoteAddress) -> stats.connectionOpened(remoteAddress))))
+                // Response bodies are not limited in size, like with the blocking engine
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+    }
+
+    /**
+     * @return engine shared by all the scenarios
+     */
+    public static WebClientRequestEngine shared() {
+        return SharedEngineHolder.ENGINE;
+    }
+
+    /**
+     * @return connections and streams opened by this engine
+     */
+    public TransportStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public CompletableFuture<EngineResponse> exchange(RestTemplate restTemplate, URI uri, HttpMethod method,
+                                                      HttpEntity<?> httpEntity) {
+        HttpHeaders initializedHeaders = getInitializedHeaders(restTemplate, uri, method);
+
+        WebClient.RequestBodySpec request = webClient.method(method).uri(uri)
+                .headers(headers -> {
+                    headers.addAll(initializedHeaders);
+                    headers.putAll(httpEntity.getHeaders());
+                });
+        if (httpEntity.getBody() != null) {
+            request.bodyValue(httpEntity.getBody());
+        }
+
+        return Mono.defer(() -> {
+            TransportStats.OriginStats originStats = stats.streamOpened(uri);
+            return request.exchangeToMono(response -> {
+                long firstByteTime = System.nanoTime();
+                return response.toEntity(String.class).map(entity -> new EngineResponse(entity, firstByteTime));
+            }).doFinally(signal -> originStats.streamClosed());
+        }).toFuture();
+    }
+
+    /**
+     * Get the headers added by the rest template request initializers, such as the basic authentication
+     */
+    private static HttpHeaders getInitializedHeaders(RestTemplate restTemplate, URI uri, HttpMethod method) {
+        InitializedRequest request = new InitializedRequest(method, uri);
+        for (ClientHttpRequestInitializer initializer : restTemplate.getClientHttpRequestInitializers()) {
+            initializer.initialize(request);
+        }
+        return request.getHeaders();
+    }
+
+    /**
+     * Request passed to the rest template request initializers to collect the headers they set, it is never sent
+     */
+    static final class InitializedRequest implements ClientHttpRequest {
+
+        private final HttpMethod method;
+
+        private final URI uri;
+
+        private final HttpHeaders headers = new HttpHeaders();
+
+        InitializedRequest(HttpMethod method, URI uri) {
+            this.method = method;
+            this.uri = uri;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public String getMethodValue() {
+            return method.name();
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            throw new UnsupportedOperationException("Request initializers can not write the body");
+        }
+
+        @Override
+        public ClientHttpResponse execute() {
+            throw new UnsupportedOperationException("Request initializers can not send the request");
+        }
+    }
+
+    // Lazily creates the shared engine on first access
+    private static final class SharedEngineHolder {
+        private static final WebClientRequestEngine ENGINE = new WebClientRequestEngine(
+                HttpTransport.fromSystemProperties());
+    }
+}
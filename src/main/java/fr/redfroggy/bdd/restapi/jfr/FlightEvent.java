@@ -0,0 +1,19 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+/**
+ * Timed flight recorder event, created by {@link FlightEvents}. The step definitions only use this type and its
+ * subtypes, so they do not load the jdk.jfr classes missing from the older Java 8 runtimes
+ */
+public interface FlightEvent {
+
+    void begin();
+
+    void end();
+
+    /**
+     * @return true if the event is enabled and lasted longer than its threshold, false for a no-op event
+     */
+    boolean shouldCommit();
+
+    void commit();
+}
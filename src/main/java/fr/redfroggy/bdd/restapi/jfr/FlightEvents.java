@@ -0,0 +1,134 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+/**
+ * Create the flight recorder events of the step definitions. The jdk.jfr module is missing from the Java 8
+ * runtimes older than 8u262: it is looked up once, and no-op events are created when it is missing
+ */
+public final class FlightEvents {
+
+    // Event doing nothing, never committed
+    static final NoOpEvent NO_OP_EVENT = new NoOpEvent();
+
+    private final boolean available;
+
+    FlightEvents(boolean available) {
+        this.available = available;
+    }
+
+    /**
+     * @return events of the running JDK
+     */
+    public static FlightEvents shared() {
+        return SharedEventsHolder.EVENTS;
+    }
+
+    /**
+     * @return true if the events are recorded by the flight recorder, false if they are no-ops
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public JsonParseRecord jsonParse() {
+        if (!available) {
+            return NO_OP_EVENT;
+        }
+        return new JsonParseEvent();
+    }
+
+    public HttpExchangeRecord httpExchange() {
+        if (!available) {
+            return NO_OP_EVENT;
+        }
+        return new HttpExchangeEvent();
+    }
+
+    public ScopeSubstitutionRecord scopeSubstitution() {
+        if (!available) {
+            return NO_OP_EVENT;
+        }
+        return new ScopeSubstitutionEvent();
+    }
+
+    static boolean isAvailable(String eventClassName) {
+        try {
+            Class.forName(eventClassName, false, FlightEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    // Lazily looks up the flight recorder on first access
+    private static final class SharedEventsHolder {
+        private static final FlightEvents EVENTS = new FlightEvents(isAvailable("jdk.jfr.Event"));
+    }
+
+    static final class NoOpEvent implements JsonParseRecord, HttpExchangeRecord, ScopeSubstitutionRecord {
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void end() {
+        }
+
+        @Override
+        public boolean shouldCommit() {
+            return false;
+        }
+
+        @Override
+        public void commit() {
+        }
+
+        @Override
+        public void setSource(String source) {
+        }
+
+        @Override
+        public void setSize(long size) {
+        }
+
+        @Override
+        public void setStreamed(boolean streamed) {
+        }
+
+        @Override
+        public void setMethod(String method) {
+        }
+
+        @Override
+        public void setResource(String resource) {
+        }
+
+        @Override
+        public void setUri(String uri) {
+        }
+
+        @Override
+        public void setStatus(int status) {
+        }
+
+        @Override
+        public void setResponseBytes(long responseBytes) {
+        }
+
+        @Override
+        public void setFirstByteNanos(long firstByteNanos) {
+        }
+
+        @Override
+        public void setVariables(int variables) {
+        }
+
+        @Override
+        public void setLength(int length) {
+        }
+
+        @Override
+        public void setJsonPath(boolean jsonPath) {
+        }
+    }
+}
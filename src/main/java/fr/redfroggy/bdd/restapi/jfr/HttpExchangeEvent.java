@@ -0,0 +1,76 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Http request sent by a step and its response, the event duration being the latency of the exchange
+ */
+@Name("fr.redfroggy.bdd.restapi.HttpExchange")
+@Label("HTTP Exchange")
+@Category({"Cucumber", "REST API"})
+@Description("Http request sent by a step and its response")
+@StackTrace(false)
+public final class HttpExchangeEvent extends Event implements HttpExchangeRecord {
+
+    @Label("Method")
+    String method;
+
+    @Label("Resource")
+    @Description("Endpoint of the request: uri template of the step, or resource once its variables are replaced")
+    String resource;
+
+    @Label("URI")
+    String uri;
+
+    @Label("Status")
+    int status;
+
+    @Label("Response Size")
+    @DataAmount
+    long responseBytes;
+
+    @Label("Time To First Byte")
+    @Timespan
+    long firstByteNanos;
+
+    @Override
+    public void setMethod(String method) {
+        this.method = method;
+    }
+
+    @Override
+    public void setResource(String resource) {
+        this.resource = resource;
+    }
+
+    @Override
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    @Override
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    @Override
+    public void setResponseBytes(long responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
+    /**
+     * @param firstByteNanos
+     *            time between the request and the response headers, -1 if unknown
+     */
+    @Override
+    public void setFirstByteNanos(long firstByteNanos) {
+        this.firstByteNanos = firstByteNanos;
+    }
+}
@@ -0,0 +1,19 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+/**
+ * Http request sent by a step and its response, see {@link HttpExchangeEvent}
+ */
+public interface HttpExchangeRecord extends FlightEvent {
+
+    void setMethod(String method);
+
+    void setResource(String resource);
+
+    void setUri(String uri);
+
+    void setStatus(int status);
+
+    void setResponseBytes(long responseBytes);
+
+    void setFirstByteNanos(long firstByteNanos);
+}
@@ -0,0 +1,69 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestStepFinished;
+import io.cucumber.plugin.event.TestStepStarted;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cucumber plugin emitting a {@link StepEvent} for each step executed, hooks excluded.
+ * Register it with {@code plugin = "fr.redfroggy.bdd.restapi.jfr.JfrStepPlugin"}.
+ * Nothing is recorded when the event is disabled, when no flight recording is running or when the running JDK has
+ * no flight recorder
+ */
+public final class JfrStepPlugin implements ConcurrentEventListener {
+
+    // Steps being executed, by step id
+    private final Map<UUID, StepEvent> steps = new ConcurrentHashMap<>();
+
+    private final FlightEvents events;
+
+    public JfrStepPlugin() {
+        this(FlightEvents.shared());
+    }
+
+    JfrStepPlugin(FlightEvents events) {
+        this.events = events;
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        if (!events.isAvailable()) {
+            return;
+        }
+        publisher.registerHandlerFor(TestStepStarted.class, this::handleTestStepStarted);
+        publisher.registerHandlerFor(TestStepFinished.class, this::handleTestStepFinished);
+    }
+
+    private void handleTestStepStarted(TestStepStarted event) {
+        if (!(event.getTestStep() instanceof PickleStepTestStep)) {
+            return;
+        }
+        StepEvent step = new StepEvent();
+        if (step.isEnabled()) {
+            step.begin();
+            steps.put(event.getTestStep().getId(), step);
+        }
+    }
+
+    private void handleTestStepFinished(TestStepFinished event) {
+        StepEvent step = steps.remove(event.getTestStep().getId());
+        if (step == null) {
+            return;
+        }
+        step.end();
+        if (step.shouldCommit()) {
+            PickleStepTestStep testStep = (PickleStepTestStep) event.getTestStep();
+            step.setStep(testStep.getStep().getKeyword() + testStep.getStep().getText());
+            step.setScenario(event.getTestCase().getName());
+            step.setFeature(event.getTestCase().getUri().toString());
+            step.setStatus(event.getResult().getStatus().name());
+            step.commit();
+        }
+    }
+}
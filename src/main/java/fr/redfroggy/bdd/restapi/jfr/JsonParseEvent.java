@@ -0,0 +1,50 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Parse of a request or response json body
+ */
+@Name("fr.redfroggy.bdd.restapi.JsonParse")
+@Label("JSON Parse")
+@Category({"Cucumber", "REST API"})
+@Description("Parse of a request or response json body")
+@StackTrace(false)
+public final class JsonParseEvent extends Event implements JsonParseRecord {
+
+    @Label("Source")
+    @Description("request or response")
+    String source;
+
+    @Label("Size")
+    @DataAmount
+    long size;
+
+    @Label("Streamed")
+    boolean streamed;
+
+    @Override
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    /**
+     * @param size
+     *            size of the parsed body, in bytes when streamed, in characters otherwise
+     */
+    @Override
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    @Override
+    public void setStreamed(boolean streamed) {
+        this.streamed = streamed;
+    }
+}
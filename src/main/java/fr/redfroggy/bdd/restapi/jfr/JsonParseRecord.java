@@ -0,0 +1,13 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+/**
+ * Parse of a request or response json body, see {@link JsonParseEvent}
+ */
+public interface JsonParseRecord extends FlightEvent {
+
+    void setSource(String source);
+
+    void setSize(long size);
+
+    void setStreamed(boolean streamed);
+}
@@ -0,0 +1,45 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Replacement of the `$name` variables of a step argument by their values from the scenario scope
+ */
+@Name("fr.redfroggy.bdd.restapi.ScopeSubstitution")
+@Label("Scope Substitution")
+@Category({"Cucumber", "REST API"})
+@Description("Replacement of the variables of a step argument by their scenario scope values")
+@StackTrace(false)
+public final class ScopeSubstitutionEvent extends Event implements ScopeSubstitutionRecord {
+
+    @Label("Variables")
+    int variables;
+
+    @Label("Length")
+    @Description("Length of the step argument")
+    int length;
+
+    @Label("Json Path Values")
+    @Description("True if the values are read from the stored json paths, false for the stored headers")
+    boolean jsonPath;
+
+    @Override
+    public void setVariables(int variables) {
+        this.variables = variables;
+    }
+
+    @Override
+    public void setLength(int length) {
+        this.length = length;
+    }
+
+    @Override
+    public void setJsonPath(boolean jsonPath) {
+        this.jsonPath = jsonPath;
+    }
+}
@@ -0,0 +1,13 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+/**
+ * Replacement of the variables of a step argument by their scenario scope values, see {@link ScopeSubstitutionEvent}
+ */
+public interface ScopeSubstitutionRecord extends FlightEvent {
+
+    void setVariables(int variables);
+
+    void setLength(int length);
+
+    void setJsonPath(boolean jsonPath);
+}
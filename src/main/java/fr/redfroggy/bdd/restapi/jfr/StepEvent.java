@@ -0,0 +1,47 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Execution of a cucumber step, emitted by the {@link JfrStepPlugin}
+ */
+@Name("fr.redfroggy.bdd.restapi.Step")
+@Label("Cucumber Step")
+@Category({"Cucumber", "REST API"})
+@Description("Execution of a step, assertions included")
+@StackTrace(false)
+public final class StepEvent extends Event {
+
+    @Label("Step")
+    String step;
+
+    @Label("Scenario")
+    String scenario;
+
+    @Label("Feature")
+    String feature;
+
+    @Label("Status")
+    String status;
+
+    public void setStep(String step) {
+        this.step = step;
+    }
+
+    public void setScenario(String scenario) {
+        this.scenario = scenario;
+    }
+
+    public void setFeature(String feature) {
+        this.feature = feature;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+}
@@ -0,0 +1,39 @@
+package fr.redfroggy.bdd.restapi.json;
+
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Equality of a json path value with an expected value written in a step.
+ * The expected value is first converted to the type of the json path value with {@link #parse(String)}
+ */
+public class JsonValueMatcher {
+
+    private final Function<String, Object> parser;
+
+    public JsonValueMatcher(Function<String, Object> parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Convert an expected value to the matched type
+     *
+     * @param value
+     *            expected value as written in the step
+     * @return converted value
+     */
+    public Object parse(String value) {
+        return parser.apply(value);
+    }
+
+    /**
+     * @param actual
+     *            json path value
+     * @param expected
+     *            converted expected value
+     * @return true if the values are equal
+     */
+    public boolean matches(Object actual, Object expected) {
+        return Objects.equals(actual, expected);
+    }
+}
@@ -0,0 +1,98 @@
+package fr.redfroggy.bdd.restapi.json;
+
+import com.jayway.jsonpath.JsonPath;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the matchers of json path values, by json path value type.
+ * The matcher of a type is resolved once, so assertions don't need reflection
+ */
+public final class JsonValueMatchers {
+
+    public static final JsonValueMatcher STRING = new JsonValueMatcher(value -> value);
+
+    public static final JsonValueMatcher INTEGER = new JsonValueMatcher(Integer::valueOf);
+
+    public static final JsonValueMatcher LONG = new JsonValueMatcher(Long::valueOf);
+
+    public static final JsonValueMatcher DOUBLE = new JsonValueMatcher(Double::valueOf);
+
+    public static final JsonValueMatcher BOOLEAN = new JsonValueMatcher(Boolean::valueOf);
+
+    public static final JsonValueMatcher BIG_DECIMAL = new JsonValueMatcher(BigDecimal::new) {
+        @Override
+        public boolean matches(Object actual, Object expected) {
+            // Equal whatever the scale
+            return ((BigDecimal) actual).compareTo((BigDecimal) expected) == 0;
+        }
+    };
+
+    public static final JsonValueMatcher NULL = new JsonValueMatcher(value -> "null".equals(value) ? null : value);
+
+    // Json objects and arrays are matched with the parsed expected json
+    public static final JsonValueMatcher JSON = new JsonValueMatcher(value -> JsonPath.parse(value).json());
+
+    private static final Map<Class<?>, JsonValueMatcher> matchers = new ConcurrentHashMap<>();
+
+    static {
+        matchers.put(String.class, STRING);
+        matchers.put(Integer.class, INTEGER);
+        matchers.put(Long.class, LONG);
+        matchers.put(Double.class, DOUBLE);
+        matchers.put(Boolean.class, BOOLEAN);
+        matchers.put(BigDecimal.class, BIG_DECIMAL);
+    }
+
+    private JsonValueMatchers() {
+    }
+
+    /**
+     * Get the matcher of the type of a json path value
+     *
+     * @param value
+     *            json path value
+     * @return matcher
+     */
+    public static JsonValueMatcher forValue(Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        return matchers.computeIfAbsent(value.getClass(), JsonValueMatchers::resolve);
+    }
+
+    private static JsonValueMatcher resolve(Class<?> type) {
+        if (Map.class.isAssignableFrom(type) || List.class.isAssignableFrom(type)) {
+            return JSON;
+        }
+        try {
+            // Other types are converted with their static valueOf(String) method, looked up once
+            Method valueOf = type.getMethod("valueOf", String.class);
+            if (Modifier.isStatic(valueOf.getModifiers()) && type.isAssignableFrom(valueOf.getReturnType())) {
+                return new JsonValueMatcher(value -> invoke(valueOf, value));
+            }
+        } catch (NoSuchMethodException e) {
+            // Matched with their string representation
+        }
+        return new JsonValueMatcher(value -> value) {
+            @Override
+            public boolean matches(Object actual, Object expected) {
+                return super.matches(String.valueOf(actual), expected);
+            }
+        };
+    }
+
+    private static Object invoke(Method valueOf, String value) {
+        try {
+            return valueOf.invoke(null, value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Cannot convert " + value + " to " + valueOf.getReturnType(), e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package fr.redfroggy.bdd.restapi.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.PathNotFoundException;
+import fr.redfroggy.bdd.restapi.cache.LruCache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Json path evaluated on a json stream, without parsing the whole document.
+ * Only definite paths made of property names and array indexes are supported,
+ * i.e $.users[0].name or $['id'], other paths must be evaluated with {@link com.jayway.jsonpath.JsonPath}
+ */
+public final class StreamingJsonPath {
+
+    // Compiled paths shared by all scenarios
+    private static final LruCache<String, StreamingJsonPath> paths = new LruCache<>(512);
+
+    private final String path;
+
+    // Property names (String) and array indexes (Integer), null if the path is not supported
+    private final List<Object> tokens;
+
+    private StreamingJsonPath(String path, List<Object> tokens) {
+        this.path = path;
+        this.tokens = tokens;
+    }
+
+    /**
+     * @param path
+     *            json path
+     * @return compiled path, see {@link #isSupported()}
+     */
+    public static StreamingJsonPath compile(String path) {
+        return paths.get(path, StreamingJsonPath::parse);
+    }
+
+    static StreamingJsonPath parse(String path) {
+        if (!path.startsWith("$")) {
+            return new StreamingJsonPath(path, null);
+        }
+        List<Object> tokens = new ArrayList<>();
+        int i = 1;
+        while (i < path.length()) {
+            char c = path.charAt(i);
+            if (c == '.' && i + 1 < path.length() && path.charAt(i + 1) == '[') {
+                i++;
+            } else if (c == '.') {
+                int end = i + 1;
+                while (end < path.length() && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                    end++;
+                }
+                String name = path.substring(i + 1, end);
+                if (!isPropertyName(name)) {
+                    return new StreamingJsonPath(path, null);
+                }
+                tokens.add(name);
+                i = end;
+            } else if (c == '[') {
+                int end = path.indexOf(']', i);
+                Object token = end == -1 ? null : parseBracket(path.substring(i + 1, end));
+                if (token == null) {
+                    return new StreamingJsonPath(path, null);
+                }
+                tokens.add(token);
+                i = end + 1;
+            } else {
+                return new StreamingJsonPath(path, null);
+            }
+        }
+        return new StreamingJsonPath(path, Collections.unmodifiableList(tokens));
+    }
+
+    private static boolean isPropertyName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if ("*?@()$'\" ,:".indexOf(name.charAt(i)) != -1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object parseBracket(String content) {
+        if (content.matches("\\d+")) {
+            return Integer.valueOf(content);
+        }
+        if (content.length() > 2 && content.charAt(0) == '\'' && content.charAt(content.length() - 1) == '\''
+                && content.indexOf('\'', 1) == content.length() - 1) {
+            return content.substring(1, content.length() - 1);
+        }
+        return null;
+    }
+
+    public boolean isSupported() {
+        return tokens != null;
+    }
+
+    /**
+     * Read the path value from a json stream. Only the value is parsed, the rest of the document is skipped
+     *
+     * @param in
+     *            json stream
+     * @param objectMapper
+     *            mapper used to parse the value
+     * @return path value (Map, List, String, Number, Boolean or null)
+     * @throws IOException
+     *             invalid json
+     * @throws PathNotFoundException
+     *             if the path does not exist
+     */
+    public Object read(InputStream in, ObjectMapper objectMapper) throws IOException {
+        if (!isSupported()) {
+            throw new IllegalStateException("Json path " + path + " cannot be read from a stream");
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            JsonToken token = parser.nextToken();
+            for (Object pathToken : tokens) {
+                if (pathToken instanceof String) {
+                    token = moveToProperty(parser, token, (String) pathToken);
+                } else {
+                    token = moveToIndex(parser, token, (Integer) pathToken);
+                }
+            }
+            if (token == null) {
+                throw new PathNotFoundException("No results for path: " + path);
+            }
+            return objectMapper.readValue(parser, Object.class);
+        }
+    }
+
+    private JsonToken moveToProperty(JsonParser parser, JsonToken token, String name) throws IOException {
+        if (token == JsonToken.START_OBJECT) {
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String currentName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                if (name.equals(currentName)) {
+                    return valueToken;
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new PathNotFoundException("No results for path: " + path);
+    }
+
+    private JsonToken moveToIndex(JsonParser parser, JsonToken token, int index) throws IOException {
+        if (token == JsonToken.START_ARRAY) {
+            int currentIndex = 0;
+            JsonToken elementToken;
+            while ((elementToken = parser.nextToken()) != JsonToken.END_ARRAY && elementToken != null) {
+                if (currentIndex++ == index) {
+                    return elementToken;
+                }
+                parser.skipChildren();
+            }
+        }
+        throw new PathNotFoundException("No results for path: " + path);
+    }
+}
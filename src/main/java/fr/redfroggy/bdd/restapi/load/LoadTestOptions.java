@@ -0,0 +1,151 @@
+package fr.redfroggy.bdd.restapi.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load test settings: features to replay, number of virtual users, ramp-up and duration
+ */
+public final class LoadTestOptions {
+
+    // Feature files or directories, a scenario can be selected with its line: path/users.feature:12
+    private final List<String> features = new ArrayList<>();
+
+    private final List<String> glue = new ArrayList<>();
+
+    // Optional scenario name regular expression
+    private String name;
+
+    // Optional tag expression
+    private String tags;
+
+    private int users = 1;
+
+    private Duration rampUp = Duration.ZERO;
+
+    private Duration duration = Duration.ofMinutes(1);
+
+    /**
+     * Read options from command line arguments:
+     * --users 10 --ramp-up 5 --duration 60 --glue fr.redfroggy.bdd.restapi.glue [--name regex] [--tags expression] features...
+     * Ramp-up and duration are in seconds
+     *
+     * @param args
+     *            command line arguments
+     * @return load test options
+     */
+    public static LoadTestOptions fromArgs(String... args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--users":
+                    options.setUsers(Integer.parseInt(args[++i]));
+                    break;
+                case "--ramp-up":
+                    options.setRampUp(Duration.ofSeconds(Long.parseLong(args[++i])));
+                    break;
+                case "--duration":
+                    options.setDuration(Duration.ofSeconds(Long.parseLong(args[++i])));
+                    break;
+                case "--glue":
+                    options.addGlue(args[++i]);
+                    break;
+                case "--name":
+                    options.setName(args[++i]);
+                    break;
+                case "--tags":
+                    options.setTags(args[++i]);
+                    break;
+                default:
+                    options.addFeature(args[i]);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * @return cucumber command line arguments running the features once
+     */
+    String[] toCucumberArgs() {
+        List<String> args = new ArrayList<>();
+        args.add("--publish-quiet");
+        for (String gluePackage : glue) {
+            args.add("--glue");
+            args.add(gluePackage);
+        }
+        if (name != null) {
+            args.add("--name");
+            args.add(name);
+        }
+        if (tags != null) {
+            args.add("--tags");
+            args.add(tags);
+        }
+        args.addAll(features);
+        return args.toArray(new String[0]);
+    }
+
+    public List<String> getFeatures() {
+        return features;
+    }
+
+    public LoadTestOptions addFeature(String feature) {
+        this.features.add(feature);
+        return this;
+    }
+
+    public List<String> getGlue() {
+        return glue;
+    }
+
+    public LoadTestOptions addGlue(String gluePackage) {
+        this.glue.add(gluePackage);
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LoadTestOptions setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    public LoadTestOptions setTags(String tags) {
+        this.tags = tags;
+        return this;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public LoadTestOptions setUsers(int users) {
+        this.users = users;
+        return this;
+    }
+
+    public Duration getRampUp() {
+        return rampUp;
+    }
+
+    public LoadTestOptions setRampUp(Duration rampUp) {
+        this.rampUp = rampUp;
+        return this;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public LoadTestOptions setDuration(Duration duration) {
+        this.duration = duration;
+        return this;
+    }
+}
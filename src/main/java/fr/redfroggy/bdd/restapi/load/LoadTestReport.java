@@ -0,0 +1,71 @@
+package fr.redfroggy.bdd.restapi.load;
+
+import fr.redfroggy.bdd.restapi.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Load test results: throughput and latency percentiles of each requested endpoint
+ */
+public final class LoadTestReport {
+
+    // Latencies by request, i.e "GET /users"
+    private final Map<String, LatencyHistogram> latencies;
+
+    private final long elapsedNanos;
+
+    private final long iterations;
+
+    private final long failedIterations;
+
+    LoadTestReport(Map<String, LatencyHistogram> latencies, long elapsedNanos, long iterations, long failedIterations) {
+        this.latencies = new TreeMap<>(latencies);
+        this.elapsedNanos = elapsedNanos;
+        this.iterations = iterations;
+        this.failedIterations = failedIterations;
+    }
+
+    public Map<String, LatencyHistogram> getLatencies() {
+        return latencies;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public long getFailedIterations() {
+        return failedIterations;
+    }
+
+    /**
+     * @param request
+     *            request, i.e "GET /users"
+     * @return number of requests per second
+     */
+    public double getThroughput(String request) {
+        LatencyHistogram histogram = latencies.get(request);
+        if (histogram == null || elapsedNanos == 0) {
+            return 0;
+        }
+        return histogram.getCount() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder(String.format("%d iterations (%d failed) in %.1f s%n",
+                iterations, failedIterations, elapsedNanos / 1e9));
+        builder.append(String.format("%-40s %8s %10s %10s %10s %10s %10s%n",
+                "Request", "Count", "Req/s", "p50 (ms)", "p95 (ms)", "p99 (ms)", "Max (ms)"));
+        latencies.forEach((request, histogram) -> builder.append(String.format(
+                "%-40s %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                request, histogram.getCount(), getThroughput(request),
+                histogram.getPercentileMillis(50), histogram.getPercentileMillis(95),
+                histogram.getPercentileMillis(99), LatencyHistogram.toMillis(histogram.getMaxNanos()))));
+        return builder.toString();
+    }
+}
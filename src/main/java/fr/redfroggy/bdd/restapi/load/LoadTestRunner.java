@@ -0,0 +1,156 @@
+package fr.redfroggy.bdd.restapi.load;
+
+import fr.redfroggy.bdd.restapi.http.HttpExchange;
+import fr.redfroggy.bdd.restapi.http.HttpExchangeListeners;
+import fr.redfroggy.bdd.restapi.http.OptionalDependency;
+import fr.redfroggy.bdd.restapi.http.TransportStats;
+import fr.redfroggy.bdd.restapi.http.WebClientRequestEngine;
+import fr.redfroggy.bdd.restapi.metrics.LatencyHistogram;
+import fr.redfroggy.bdd.restapi.scope.FeatureScopes;
+import io.cucumber.core.feature.FeatureParser;
+import io.cucumber.core.gherkin.Feature;
+import io.cucumber.core.options.CommandlineOptionsParser;
+import io.cucumber.core.options.RuntimeOptions;
+import io.cucumber.core.runtime.FeaturePathFeatureSupplier;
+import io.cucumber.core.runtime.Runtime;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.Status;
+import io.cucumber.plugin.event.TestCaseFinished;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Replay existing features with concurrent virtual users.
+ * Each virtual user runs the selected features in a loop until the load test duration is elapsed,
+ * the virtual users are started progressively during the ramp-up.
+ * The latency of every http request made by the steps is recorded by endpoint: uri template or resource as written
+ * in the step
+ */
+public final class LoadTestRunner {
+
+    private final LoadTestOptions options;
+
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
+    private final AtomicLong iterations = new AtomicLong();
+
+    private final AtomicLong failedIterations = new AtomicLong();
+
+    public LoadTestRunner(LoadTestOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        LoadTestReport report = new LoadTestRunner(LoadTestOptions.fromArgs(args)).run();
+        System.out.print(report);
+        if (OptionalDependency.NON_BLOCKING_ENGINE.isPresent()) {
+            TransportStats transportStats = WebClientRequestEngine.shared().getStats();
+            if (!transportStats.getOrigins().isEmpty()) {
+                System.out.print(transportStats);
+            }
+        }
+        System.exit(report.getFailedIterations() == 0 ? 0 : 1);
+    }
+
+    /**
+     * Run the load test
+     *
+     * @return load test results
+     * @throws InterruptedException
+     *             if interrupted while waiting for the virtual users
+     */
+    public LoadTestReport run() throws InterruptedException {
+        int users = options.getUsers();
+        long rampUpNanos = options.getRampUp().toNanos();
+        long start = System.nanoTime();
+        long end = start + rampUpNanos + options.getDuration().toNanos();
+
+        Consumer<HttpExchange> listener = exchange -> latencies
+                .computeIfAbsent(exchange.getMethod() + " " + exchange.getResource(), request -> new LatencyHistogram())
+                .record(exchange.getDurationNanos());
+        HttpExchangeListeners.add(listener);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(users, runnable -> {
+            Thread thread = new Thread(runnable, "virtual-user-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int user = 0; user < users; user++) {
+                long startDelay = rampUpNanos * user / users;
+                executor.execute(() -> runVirtualUser(start + startDelay, end));
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Wait for the running iterations to complete
+            }
+        } finally {
+            executor.shutdownNow();
+            HttpExchangeListeners.remove(listener);
+        }
+
+        return new LoadTestReport(latencies, System.nanoTime() - start, iterations.get(), failedIterations.get());
+    }
+
+    private void runVirtualUser(long start, long end) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(start - System.nanoTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        AtomicBoolean failed = new AtomicBoolean();
+        Runtime runtime = buildRuntime(failed);
+        while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+            FeatureScopes.runIsolated(() -> {
+                failed.set(false);
+                runtime.run();
+                if (failed.get()) {
+                    failedIterations.incrementAndGet();
+                }
+                iterations.incrementAndGet();
+            });
+        }
+    }
+
+    /**
+     * Build the cucumber runtime of a virtual user: the options, the glue and the features are loaded once,
+     * then each run only executes the already compiled pickles on the calling thread.
+     * No formatter nor summary printer is set, the load test report is printed once at the end
+     *
+     * @param failed
+     *            set when a scenario does not pass
+     * @return virtual user runtime
+     */
+    private Runtime buildRuntime(AtomicBoolean failed) {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        RuntimeOptions runtimeOptions = new CommandlineOptionsParser(System.out)
+                .parse(options.toCucumberArgs())
+                .build();
+        List<Feature> features = new FeaturePathFeatureSupplier(() -> classLoader, runtimeOptions,
+                new FeatureParser(UUID::randomUUID)).get();
+        ConcurrentEventListener failureListener = publisher -> publisher.registerHandlerFor(TestCaseFinished.class,
+                event -> {
+                    if (!event.getResult().getStatus().is(Status.PASSED)) {
+                        failed.set(true);
+                    }
+                });
+        return Runtime.builder()
+                .withRuntimeOptions(runtimeOptions)
+                .withClassLoader(() -> classLoader)
+                .withFeatureSupplier(() -> features)
+                .withAdditionalPlugins(failureListener)
+                .build();
+    }
+}
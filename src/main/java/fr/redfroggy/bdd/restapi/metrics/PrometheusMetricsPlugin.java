@@ -0,0 +1,61 @@
+package fr.redfroggy.bdd.restapi.metrics;
+
+import fr.redfroggy.bdd.restapi.http.OptionalDependency;
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.PickleStepTestStep;
+import io.cucumber.plugin.event.TestRunFinished;
+import io.cucumber.plugin.event.TestStepFinished;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Cucumber plugin collecting the {@link SuiteMetrics} of the run and writing them in the Prometheus text format
+ * once the run is finished. Register it with
+ * {@code plugin = "fr.redfroggy.bdd.restapi.metrics.PrometheusMetricsPlugin:target/cucumber-metrics.prom"}.
+ * Requires the optional micrometer-registry-prometheus dependency
+ */
+public final class PrometheusMetricsPlugin implements ConcurrentEventListener {
+
+    private final Path file;
+
+    private final SuiteMetrics metrics;
+
+    public PrometheusMetricsPlugin() {
+        this("target/cucumber-metrics.prom");
+    }
+
+    /**
+     * @param file
+     *            metrics file
+     */
+    public PrometheusMetricsPlugin(String file) {
+        this(Paths.get(file), getSharedMetrics());
+    }
+
+    PrometheusMetricsPlugin(Path file, SuiteMetrics metrics) {
+        this.file = file;
+        this.metrics = metrics;
+    }
+
+    private static SuiteMetrics getSharedMetrics() {
+        // Fail with the missing artifact rather than with a NoClassDefFoundError
+        OptionalDependency.PROMETHEUS_METRICS.require("The PrometheusMetricsPlugin");
+        return SuiteMetrics.shared();
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestStepFinished.class, this::handleTestStepFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> metrics.write(file));
+    }
+
+    private void handleTestStepFinished(TestStepFinished event) {
+        if (event.getTestStep() instanceof PickleStepTestStep) {
+            metrics.recordStep(((PickleStepTestStep) event.getTestStep()).getPattern(),
+                    event.getResult().getStatus().name().toLowerCase(Locale.ROOT));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package fr.redfroggy.bdd.restapi.metrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Response times of the requests of a scenario, by endpoint.
+ * The {@value #WINDOW_SIZE} most recent ones are kept to check the percentiles of the last requests.
+ * A histogram also keeps the distribution of all the response times: it is informational, for custom steps and
+ * reports, the percentile steps only use the most recent response times
+ */
+public final class ResponseTimes {
+
+    // Number of most recent response times kept by endpoint, the maximum number of requests of a percentile step
+    public static final int WINDOW_SIZE = 1024;
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    private final Map<String, LatencyWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Record a response time
+     *
+     * @param endpoint
+     *            requested endpoint
+     * @param nanos
+     *            response time in nanoseconds
+     */
+    public void record(String endpoint, long nanos) {
+        histograms.computeIfAbsent(endpoint, key -> new LatencyHistogram()).record(nanos);
+        windows.computeIfAbsent(endpoint, key -> new LatencyWindow()).add(nanos);
+    }
+
+    /**
+     * @param endpoint
+     *            requested endpoint
+     * @return histogram of all the response times of the endpoint, null if never requested. Informational: not used
+     *         by the percentile steps
+     */
+    public LatencyHistogram getHistogram(String endpoint) {
+        return histograms.get(endpoint);
+    }
+
+    /**
+     * @param endpoint
+     *            requested endpoint
+     * @param lastRequests
+     *            number of most recent requests
+     * @return response times of the last requests, oldest first, fewer if not enough requests were made
+     */
+    public long[] getLast(String endpoint, int lastRequests) {
+        LatencyWindow window = windows.get(endpoint);
+        return window == null ? new long[0] : window.last(lastRequests);
+    }
+
+    /**
+     * Get a percentile of the response times of the last requests
+     *
+     * @param endpoint
+     *            requested endpoint
+     * @param lastRequests
+     *            number of most recent requests
+     * @param percentile
+     *            percentile between 0 and 100, i.e 95 for the p95
+     * @return response time in nanoseconds, 0 if the endpoint was never requested
+     */
+    public long getPercentileNanos(String endpoint, int lastRequests, double percentile) {
+        long[] values = getLast(endpoint, lastRequests);
+        if (values.length == 0) {
+            return 0;
+        }
+        Arrays.sort(values);
+        int rank = (int) Math.ceil(percentile / 100 * values.length);
+        return values[Math.max(0, rank - 1)];
+    }
+
+    // Ring buffer of the most recent response times
+    private static final class LatencyWindow {
+
+        private final long[] values = new long[WINDOW_SIZE];
+
+        private int count;
+
+        private int next;
+
+        synchronized void add(long nanos) {
+            values[next] = nanos;
+            next = (next + 1) % WINDOW_SIZE;
+            count = Math.min(count + 1, WINDOW_SIZE);
+        }
+
+        synchronized long[] last(int size) {
+            int length = Math.min(size, count);
+            long[] last = new long[length];
+            for (int i = 0; i < length; i++) {
+                last[i] = values[Math.floorMod(next - length + i, WINDOW_SIZE)];
+            }
+            return last;
+        }
+    }
+}
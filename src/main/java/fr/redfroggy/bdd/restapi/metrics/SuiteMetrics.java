@@ -0,0 +1,140 @@
+package fr.redfroggy.bdd.restapi.metrics;
+
+import fr.redfroggy.bdd.restapi.http.HttpConnectionPool;
+import fr.redfroggy.bdd.restapi.http.HttpExchange;
+import fr.redfroggy.bdd.restapi.http.HttpExchangeListeners;
+import fr.redfroggy.bdd.restapi.scope.FeatureScopes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of a suite run, exported in the Prometheus text format:
+ * <ul>
+ * <li>cucumber_restapi_http_requests_seconds: timer of the http exchanges by method, endpoint and status</li>
+ * <li>cucumber_restapi_steps_total: executed steps by step definition and status</li>
+ * <li>cucumber_restapi_http_pool_connections: leased, available and pending connections of the shared pool</li>
+ * <li>cucumber_restapi_scope_features, cucumber_restapi_scope_values: feature scopes and their stored values</li>
+ * </ul>
+ */
+public final class SuiteMetrics {
+
+    private final PrometheusMeterRegistry registry;
+
+    /**
+     * @param registry
+     *            registry holding the metrics
+     * @param pool
+     *            connection pool to monitor
+     */
+    public SuiteMetrics(PrometheusMeterRegistry registry, HttpConnectionPool pool) {
+        this.registry = registry;
+
+        Gauge.builder("cucumber.restapi.http.pool.connections", pool, p -> p.getTotalStats().getLeased())
+                .tag("state", "leased")
+                .register(registry);
+        Gauge.builder("cucumber.restapi.http.pool.connections", pool, p -> p.getTotalStats().getAvailable())
+                .tag("state", "available")
+                .register(registry);
+        Gauge.builder("cucumber.restapi.http.pool.connections", pool, p -> p.getTotalStats().getPending())
+                .tag("state", "pending")
+                .register(registry);
+        Gauge.builder("cucumber.restapi.scope.features", FeatureScopes::size)
+                .description("Number of feature scopes")
+                .register(registry);
+        Gauge.builder("cucumber.restapi.scope.values", FeatureScopes::getValueCount)
+                .description("Number of values stored in the feature scopes")
+                .register(registry);
+    }
+
+    /**
+     * @return metrics shared by all the scenarios, recording every http exchange of the steps
+     */
+    public static SuiteMetrics shared() {
+        return SharedMetricsHolder.METRICS;
+    }
+
+    /**
+     * Record an http exchange
+     *
+     * @param exchange
+     *            http exchange
+     */
+    public void recordExchange(HttpExchange exchange) {
+        Timer.builder("cucumber.restapi.http.requests")
+                .description("Http exchanges of the steps")
+                .tag("method", exchange.getMethod().name())
+                .tag("endpoint", exchange.getResource())
+                .tag("status", String.valueOf(exchange.getStatus()))
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(registry)
+                .record(exchange.getDurationNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Count an executed step
+     *
+     * @param type
+     *            step definition pattern
+     * @param status
+     *            step result, i.e passed or failed
+     */
+    public void recordStep(String type, String status) {
+        Counter.builder("cucumber.restapi.steps")
+                .description("Executed steps")
+                .tag("step", type)
+                .tag("status", status)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * @return metrics in the Prometheus text format
+     */
+    public String scrape() {
+        return registry.scrape();
+    }
+
+    /**
+     * Write the metrics in the Prometheus text format, i.e for the node exporter textfile collector
+     *
+     * @param file
+     *            metrics file, replaced
+     */
+    public void write(Path file) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            // Written next to the file then moved, so the file is never read half written
+            Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temporaryFile, scrape().getBytes(StandardCharsets.UTF_8));
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public PrometheusMeterRegistry getRegistry() {
+        return registry;
+    }
+
+    private static final class SharedMetricsHolder {
+        private static final SuiteMetrics METRICS = createShared();
+
+        private static SuiteMetrics createShared() {
+            SuiteMetrics metrics = new SuiteMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT),
+                    HttpConnectionPool.shared());
+            HttpExchangeListeners.add(metrics::recordExchange);
+            return metrics;
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package fr.redfroggy.bdd.restapi.recording;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Http exchanges recorded on disk, in a directory holding:
+ * <ul>
+ * <li>exchanges.dat: the status, headers and body of the responses, appended one after the other</li>
+ * <li>index.tsv: one line per exchange, the request key and the offset of the response in the data file, by order
+ * of recording</li>
+ * </ul>
+ * The data file is memory-mapped when the recording is opened, in segments of 1 GB: the responses are decoded from
+ * the mapped segments when replayed, only the index is kept on the heap. A response never crosses a segment
+ * boundary, the responses are moved to the next segment when needed and limited to the segment size.
+ * <p>
+ * A request is identified by its method, path and query, the hashes of the values of the key headers
+ * (Authorization and Accept by default) and the hash of its body: the scheme, host and port are ignored so the
+ * recordings do not depend on the server address. When the same request is sent several times, its responses are
+ * replayed in the recording order, the caller counting the occurrences of each request
+ */
+public final class ExchangeRecording implements Closeable {
+
+    private static final String INDEX_FILE = "index.tsv";
+
+    private static final String DATA_FILE = "exchanges.dat";
+
+    // Length of a null response body
+    private static final int NO_BODY = -1;
+
+    // Size of the mapped segments of the data file, a response is written in a single segment
+    static final int SEGMENT_SIZE = 1 << 30;
+
+    // Request headers identifying the requests by default
+    private static final String DEFAULT_KEY_HEADERS = HttpHeaders.AUTHORIZATION + "," + HttpHeaders.ACCEPT;
+
+    private final Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    // Request headers part of the request keys, the same headers must be used to record and to replay
+    private final List<String> keyHeaders;
+
+    // Offsets of the responses of each request key in the data file, by order of recording
+    private final Map<String, List<Long>> index = new HashMap<>();
+
+    // Data file appended in record mode, null when replaying
+    private final FileChannel writeChannel;
+
+    // Segments of the data file mapped in replay mode, null when recording
+    private final ByteBuffer[] segments;
+
+    private final int segmentSize;
+
+    private long dataSize;
+
+    private int size;
+
+    private ExchangeRecording(Path directory, List<String> keyHeaders, FileChannel writeChannel,
+                              ByteBuffer[] segments, int segmentSize) {
+        this.directory = directory;
+        this.keyHeaders = keyHeaders;
+        this.writeChannel = writeChannel;
+        this.segments = segments;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Create an empty recording, replacing the existing one, identifying the requests by the headers of the
+     * cucumber.restapi.recording.headers system property
+     *
+     * @param directory
+     *            recording directory
+     * @return recording
+     */
+    public static ExchangeRecording create(Path directory) {
+        return create(directory, keyHeadersFromSystemProperties());
+    }
+
+    /**
+     * Create an empty recording, replacing the existing one
+     *
+     * @param directory
+     *            recording directory
+     * @param keyHeaders
+     *            names of the request headers identifying the requests
+     * @return recording
+     */
+    public static ExchangeRecording create(Path directory, List<String> keyHeaders) {
+        return create(directory, keyHeaders, SEGMENT_SIZE);
+    }
+
+    static ExchangeRecording create(Path directory, List<String> keyHeaders, int segmentSize) {
+        try {
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(INDEX_FILE), new byte[0]);
+            return new ExchangeRecording(directory, keyHeaders, FileChannel.open(directory.resolve(DATA_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING),
+                    null, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Open an existing recording, identifying the requests by the headers of the cucumber.restapi.recording.headers
+     * system property
+     *
+     * @param directory
+     *            recording directory
+     * @return recording
+     */
+    public static ExchangeRecording open(Path directory) {
+        return open(directory, keyHeadersFromSystemProperties());
+    }
+
+    /**
+     * Open an existing recording
+     *
+     * @param directory
+     *            recording directory
+     * @param keyHeaders
+     *            names of the request headers identifying the requests, as when recorded
+     * @return recording
+     */
+    public static ExchangeRecording open(Path directory, List<String> keyHeaders) {
+        return open(directory, keyHeaders, SEGMENT_SIZE);
+    }
+
+    static ExchangeRecording open(Path directory, List<String> keyHeaders, int segmentSize) {
+        try (FileChannel channel = FileChannel.open(directory.resolve(DATA_FILE), StandardOpenOption.READ)) {
+            long size = channel.size();
+            // The mappings stay valid once the channel is closed
+            ByteBuffer[] segments = new ByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+            for (int segment = 0; segment < segments.length; segment++) {
+                long position = (long) segment * segmentSize;
+                segments[segment] = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(segmentSize, size - position));
+            }
+            ExchangeRecording recording = new ExchangeRecording(directory, keyHeaders, null, segments, segmentSize);
+            recording.dataSize = size;
+            for (String line : Files.readAllLines(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+                int separator = line.lastIndexOf('\t');
+                recording.index(line.substring(0, separator), Long.parseLong(line.substring(separator + 1)));
+            }
+            return recording;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the recording " + directory, e);
+        }
+    }
+
+    /**
+     * @return recording of the cucumber.restapi.recording.dir directory (default src/test/resources/recordings),
+     *         replaced in record mode
+     */
+    public static ExchangeRecording shared() {
+        return SharedRecordingHolder.RECORDING;
+    }
+
+    /**
+     * Record an exchange
+     *
+     * @param method
+     *            request method
+     * @param uri
+     *            request uri
+     * @param headers
+     *            request headers
+     * @param body
+     *            request body, may be null
+     * @param response
+     *            http response
+     */
+    public synchronized void record(HttpMethod method, URI uri, HttpHeaders headers, Object body,
+                                    ResponseEntity<String> response) {
+        if (writeChannel == null) {
+            throw new IllegalStateException("Recording opened for replay: " + directory);
+        }
+        String key = getKey(method, uri, headers, body);
+        try {
+            ByteBuffer entry = ByteBuffer.wrap(encode(response));
+            int length = entry.remaining();
+            if (length > segmentSize) {
+                throw new IllegalArgumentException(String.format(
+                        "Response of %s %s too large to be recorded: %d bytes, limited to %d bytes",
+                        method, uri, length, segmentSize));
+            }
+            long offset = dataSize;
+            if (offset / segmentSize != (offset + length - 1) / segmentSize) {
+                // Start of the next segment, the skipped bytes are never read
+                offset = (offset / segmentSize + 1) * segmentSize;
+            }
+            long position = offset;
+            while (entry.hasRemaining()) {
+                position += writeChannel.write(entry, position);
+            }
+            dataSize = position;
+            try (BufferedWriter writer = Files.newBufferedWriter(directory.resolve(INDEX_FILE),
+                    StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+                writer.write(key + "\t" + offset);
+                writer.newLine();
+            }
+            index(key, offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Find a recorded response of a request
+     *
+     * @param key
+     *            request key, see {@link #getKey(HttpMethod, URI, HttpHeaders, Object)}
+     * @param occurrence
+     *            number of times the request has already been replayed
+     * @return response recorded for this occurrence, the last recorded response once they have all been replayed,
+     *         null if the request was not recorded
+     */
+    public ResponseEntity<String> replay(String key, int occurrence) {
+        if (segments == null) {
+            throw new IllegalStateException("Recording opened for record: " + directory);
+        }
+        List<Long> offsets = index.get(key);
+        if (offsets == null) {
+            return null;
+        }
+        return decode(offsets.get(Math.min(occurrence, offsets.size() - 1)));
+    }
+
+    /**
+     * @return number of recorded exchanges
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return size of the data file, in bytes
+     */
+    public synchronized long getDataSize() {
+        return dataSize;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() {
+        if (writeChannel == null) {
+            return;
+        }
+        try {
+            writeChannel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<String> getKeyHeaders() {
+        return keyHeaders;
+    }
+
+    /**
+     * @param method
+     *            request method
+     * @param uri
+     *            request uri
+     * @param headers
+     *            request headers
+     * @param body
+     *            request body, may be null
+     * @return key identifying the request: method, path, query, key header value hashes and body hash
+     */
+    public String getKey(HttpMethod method, URI uri, HttpHeaders headers, Object body) {
+        StringBuilder key = new StringBuilder(method.name()).append(' ').append(uri.getRawPath());
+        if (uri.getRawQuery() != null) {
+            key.append('?').append(uri.getRawQuery());
+        }
+        for (String name : keyHeaders) {
+            List<String> values = headers.get(name);
+            if (values != null) {
+                // Hashed so that credentials are not written to the index
+                key.append(' ').append(name.toLowerCase()).append('=').append(hash(String.join(",", values)));
+            }
+        }
+        if (body != null) {
+            key.append(' ').append(hash(body));
+        }
+        return key.toString();
+    }
+
+    private void index(String key, long offset) {
+        index.computeIfAbsent(key, k -> new ArrayList<>()).add(offset);
+        size++;
+    }
+
+    private String hash(Object body) {
+        try {
+            byte[] bytes;
+            if (body instanceof byte[]) {
+                bytes = (byte[]) body;
+            } else if (body instanceof String) {
+                bytes = ((String) body).getBytes(StandardCharsets.UTF_8);
+            } else {
+                bytes = objectMapper.writeValueAsBytes(body);
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            StringBuilder hash = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                hash.append(String.format("%02x", digest[i]));
+            }
+            return hash.toString();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize the request body", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Encode a response: status, headers count, name, values count and values of each header, body length
+     * ({@value #NO_BODY} if null) and body. Strings are written as their UTF-8 length and bytes
+     */
+    private static byte[] encode(ResponseEntity<String> response) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(response.getStatusCodeValue());
+        out.writeInt(response.getHeaders().size());
+        for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+            writeString(out, header.getKey());
+            out.writeInt(header.getValue().size());
+            for (String value : header.getValue()) {
+                writeString(out, value);
+            }
+        }
+        if (response.getBody() == null) {
+            out.writeInt(NO_BODY);
+        } else {
+            writeString(out, response.getBody());
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * @param offset
+     *            offset of the response in the data file
+     * @return response decoded from the mapped segment of the data file
+     */
+    private ResponseEntity<String> decode(long offset) {
+        // Each replay reads its own view of the shared mapping
+        ByteBuffer in = segments[(int) (offset / segmentSize)].duplicate();
+        in.position((int) (offset % segmentSize));
+        int status = in.getInt();
+        HttpHeaders headers = new HttpHeaders();
+        for (int headerCount = in.getInt(); headerCount > 0; headerCount--) {
+            String name = readString(in, in.getInt());
+            for (int valueCount = in.getInt(); valueCount > 0; valueCount--) {
+                headers.add(name, readString(in, in.getInt()));
+            }
+        }
+        int bodyLength = in.getInt();
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .body(bodyLength == NO_BODY ? null : readString(in, bodyLength));
+    }
+
+    private static String readString(ByteBuffer in, int length) {
+        ByteBuffer bytes = in.slice();
+        bytes.limit(length);
+        in.position(in.position() + length);
+        return StandardCharsets.UTF_8.decode(bytes).toString();
+    }
+
+    /**
+     * @return names of the request headers set with the cucumber.restapi.recording.headers system property,
+     *         separated by commas, Authorization and Accept by default
+     */
+    static List<String> keyHeadersFromSystemProperties() {
+        String names = System.getProperty(RecordingMode.HEADERS_PROPERTY, DEFAULT_KEY_HEADERS).trim();
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(names.split(",")).map(String::trim).collect(Collectors.toList());
+    }
+
+    private static final class SharedRecordingHolder {
+        private static final ExchangeRecording RECORDING = openShared();
+
+        private static ExchangeRecording openShared() {
+            Path directory = Paths.get(System.getProperty(RecordingMode.DIRECTORY_PROPERTY,
+                    "src/test/resources/recordings"));
+            return RecordingMode.fromSystemProperties() == RecordingMode.RECORD ? create(directory) : open(directory);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package fr.redfroggy.bdd.restapi.recording;
+
+/**
+ * Recording of the http exchanges, set with the cucumber.restapi.recording.mode system property:
+ * <ul>
+ * <li>off: requests are sent to the server (default)</li>
+ * <li>record: requests are sent to the server, the exchanges are recorded</li>
+ * <li>replay: the recorded responses are returned, no request is sent</li>
+ * </ul>
+ * The recording directory is set with the cucumber.restapi.recording.dir system property, the request headers
+ * identifying the recorded requests with the cucumber.restapi.recording.headers system property.
+ * The mode is only read from the system properties, by the glue and by the {@link ReplayEnvironmentPostProcessor}
+ */
+public enum RecordingMode {
+
+    OFF("off"),
+    RECORD("record"),
+    REPLAY("replay");
+
+    public static final String MODE_PROPERTY = "cucumber.restapi.recording.mode";
+
+    public static final String DIRECTORY_PROPERTY = "cucumber.restapi.recording.dir";
+
+    public static final String HEADERS_PROPERTY = "cucumber.restapi.recording.headers";
+
+    private final String name;
+
+    RecordingMode(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param name
+     *            mode name, in any case: off, record or replay
+     * @return mode
+     * @throws IllegalArgumentException
+     *             if the name is not a mode name
+     */
+    public static RecordingMode forName(String name) {
+        for (RecordingMode mode : values()) {
+            if (mode.name.equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown recording mode " + name + " set with the " + MODE_PROPERTY
+                + " system property, expected off, record or replay");
+    }
+
+    /**
+     * @param name
+     *            mode name, in any case, may be null or unknown
+     * @return true if the name is the replay mode name
+     */
+    public static boolean isReplay(String name) {
+        return REPLAY.name.equalsIgnoreCase(name);
+    }
+
+    /**
+     * @return mode set with the cucumber.restapi.recording.mode system property, off by default
+     */
+    public static RecordingMode fromSystemProperties() {
+        return forName(System.getProperty(MODE_PROPERTY, OFF.name));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,94 @@
+package fr.redfroggy.bdd.restapi.recording;
+
+import fr.redfroggy.bdd.restapi.http.EngineResponse;
+import fr.redfroggy.bdd.restapi.http.RequestEngine;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Engine recording the exchanges of another engine, or replaying them without sending any request.
+ * The responses of a request sent several times are replayed in the recording order, the occurrences of the
+ * requests being counted by scenario
+ */
+public final class RecordingRequestEngine implements RequestEngine {
+
+    private final RequestEngine engine;
+
+    private final ExchangeRecording recording;
+
+    private final RecordingMode mode;
+
+    // Number of times each request key has been replayed by the scenario
+    private final Map<String, AtomicInteger> replayCounts;
+
+    /**
+     * @param engine
+     *            engine sending the requests in record mode
+     * @param recording
+     *            recorded exchanges
+     * @param mode
+     *            record or replay
+     */
+    public RecordingRequestEngine(RequestEngine engine, ExchangeRecording recording, RecordingMode mode) {
+        this(engine, recording, mode, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @param engine
+     *            engine sending the requests in record mode
+     * @param recording
+     *            recorded exchanges
+     * @param mode
+     *            record or replay
+     * @param replayCounts
+     *            number of times each request key has been replayed by the scenario, updated by the engine
+     */
+    public RecordingRequestEngine(RequestEngine engine, ExchangeRecording recording, RecordingMode mode,
+                                  Map<String, AtomicInteger> replayCounts) {
+        if (mode == RecordingMode.OFF) {
+            throw new IllegalArgumentException("Recording mode must be record or replay");
+        }
+        this.engine = engine;
+        this.recording = recording;
+        this.mode = mode;
+        this.replayCounts = replayCounts;
+    }
+
+    @Override
+    public CompletableFuture<EngineResponse> exchange(RestTemplate restTemplate, URI uri, HttpMethod method,
+                                                      HttpEntity<?> httpEntity) {
+        if (mode == RecordingMode.REPLAY) {
+            CompletableFuture<EngineResponse> future = new CompletableFuture<>();
+            String key = recording.getKey(method, uri, httpEntity.getHeaders(), httpEntity.getBody());
+            int occurrence = replayCounts.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+            ResponseEntity<String> response = recording.replay(key, occurrence);
+            if (response == null) {
+                future.completeExceptionally(new IllegalStateException(String.format(
+                        "No recorded response for %s %s in %s", method, uri, recording.getDirectory())));
+            } else {
+                future.complete(new EngineResponse(response, System.nanoTime()));
+            }
+            return future;
+        }
+        return engine.exchange(restTemplate, uri, method, httpEntity).thenApply(response -> {
+            recording.record(method, uri, httpEntity.getHeaders(), httpEntity.getBody(), response.getEntity());
+            return response;
+        });
+    }
+
+    public RequestEngine getEngine() {
+        return engine;
+    }
+
+    public RecordingMode getMode() {
+        return mode;
+    }
+}
@@ -0,0 +1,42 @@
+package fr.redfroggy.bdd.restapi.recording;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Collections;
+import java.util.function.UnaryOperator;
+
+/**
+ * Skip the web server of the tested application in replay mode: no request is sent to it,
+ * so a {@code @SpringBootTest(webEnvironment = DEFINED_PORT)} context is started without the server.
+ * The web application type set by the application or the test is kept.
+ * The mode is read from the system properties, like the glue does, and an unknown mode is ignored here:
+ * it is reported by the glue
+ */
+public class ReplayEnvironmentPostProcessor implements EnvironmentPostProcessor {
+
+    static final String WEB_APPLICATION_TYPE_PROPERTY = "spring.main.web-application-type";
+
+    static final String PROPERTY_SOURCE_NAME = "cucumberRestApiReplay";
+
+    private final UnaryOperator<String> systemProperties;
+
+    public ReplayEnvironmentPostProcessor() {
+        this(System::getProperty);
+    }
+
+    ReplayEnvironmentPostProcessor(UnaryOperator<String> systemProperties) {
+        this.systemProperties = systemProperties;
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        if (RecordingMode.isReplay(systemProperties.apply(RecordingMode.MODE_PROPERTY))
+                && !environment.containsProperty(WEB_APPLICATION_TYPE_PROPERTY)) {
+            environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE_NAME,
+                    Collections.singletonMap(WEB_APPLICATION_TYPE_PROPERTY, "none")));
+        }
+    }
+}
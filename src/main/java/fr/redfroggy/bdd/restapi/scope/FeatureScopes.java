@@ -0,0 +1,73 @@
+package fr.redfroggy.bdd.restapi.scope;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the scopes shared by all the scenarios of a feature.
+ * Runs of a same feature can be isolated from each other with {@link #runIsolated(Runnable)}
+ */
+public final class FeatureScopes {
+
+    private static final Map<String, ScenarioScope> scopes = new ConcurrentHashMap<>();
+
+    // Namespace of the feature scopes used by the current thread and its children
+    private static final ThreadLocal<String> namespace = new InheritableThreadLocal<>();
+
+    private FeatureScopes() {
+    }
+
+    /**
+     * Get the scope of a feature, created on first access
+     *
+     * @param featureUri
+     *            uri of the feature file
+     * @return feature scope
+     */
+    public static ScenarioScope get(String featureUri) {
+        String currentNamespace = namespace.get();
+        String key = currentNamespace == null ? featureUri : currentNamespace + '|' + featureUri;
+        return scopes.computeIfAbsent(key, uri -> new ScenarioScope());
+    }
+
+    /**
+     * Run features with their own feature scopes, dropped once the run is over
+     *
+     * @param run
+     *            features run
+     */
+    public static void runIsolated(Runnable run) {
+        String isolatedNamespace = UUID.randomUUID().toString();
+        namespace.set(isolatedNamespace);
+        try {
+            run.run();
+        } finally {
+            namespace.remove();
+            scopes.keySet().removeIf(key -> key.startsWith(isolatedNamespace + '|'));
+        }
+    }
+
+    /**
+     * @return number of feature scopes
+     */
+    public static int size() {
+        return scopes.size();
+    }
+
+    /**
+     * @return number of headers and json path values stored in all the feature scopes
+     */
+    public static int getValueCount() {
+        return scopes.values().stream()
+                .mapToInt(scope -> scope.getHeaders().size() + scope.getJsonPaths().size())
+                .sum();
+    }
+
+    /**
+     * Remove all the feature scopes
+     */
+    public static void clear() {
+        scopes.clear();
+    }
+}
@@ -1,22 +1,39 @@
 package fr.redfroggy.bdd.restapi.scope;
 
-import java.util.HashMap;
+import org.springframework.http.ResponseEntity;
+
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Scenario scope to store data between steps
+ * Scenario scope to store data between steps.
+ * Each scenario has its own scope, values shared by several scenarios of a feature
+ * are stored in the parent feature scope (see {@link FeatureScopes}).
+ * Scopes can be used concurrently
  */
 public class ScenarioScope {
 
     //Store http headers
-    private Map<String,Object> headers;
+    private final Map<String,Object> headers;
 
     //Store json paths
-    private Map<String,Object> jsonPaths;
+    private final Map<String,Object> jsonPaths;
+
+    //Store http responses
+    private final Map<String, ResponseEntity<String>> responses;
+
+    //Scope looked up when a value is not found in this scope
+    private final ScenarioScope parent;
 
     public ScenarioScope() {
-        headers = new HashMap<>();
-        jsonPaths = new HashMap<>();
+        this(null);
+    }
+
+    public ScenarioScope(ScenarioScope parent) {
+        this.parent = parent;
+        headers = new ConcurrentHashMap<>();
+        jsonPaths = new ConcurrentHashMap<>();
+        responses = new ConcurrentHashMap<>();
     }
 
     public Map<String, Object> getHeaders() {
@@ -26,4 +43,42 @@ public class ScenarioScope {
     public Map<String, Object> getJsonPaths() {
         return jsonPaths;
     }
+
+    public Map<String, ResponseEntity<String>> getResponses() {
+        return responses;
+    }
+
+    public ScenarioScope getParent() {
+        return parent;
+    }
+
+    /**
+     * Get a stored header from this scope or its parent
+     *
+     * @param name
+     *            header alias
+     * @return header values, null if not found
+     */
+    public Object getHeader(String name) {
+        Object value = headers.get(name);
+        if (value == null && parent != null) {
+            return parent.getHeader(name);
+        }
+        return value;
+    }
+
+    /**
+     * Get a stored json path value from this scope or its parent
+     *
+     * @param name
+     *            json path alias
+     * @return json path value, null if not found
+     */
+    public Object getJsonPath(String name) {
+        Object value = jsonPaths.get(name);
+        if (value == null && parent != null) {
+            return parent.getJsonPath(name);
+        }
+        return value;
+    }
 }
@@ -0,0 +1,134 @@
+package fr.redfroggy.bdd.restapi.scope;
+
+import fr.redfroggy.bdd.restapi.cache.LruCache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Step argument compiled into literal and scenario scope variable segments.
+ * A variable is written `$name` and is replaced by its value from the scenario scope.
+ * Templates are compiled once per source text and rendered in a single pass
+ */
+public final class ScopeTemplate {
+
+    private static final String VARIABLE_START = "`$";
+
+    private static final char VARIABLE_END = '`';
+
+    // Estimated length of a rendered variable, used to pre-size the output buffer
+    private static final int VARIABLE_LENGTH_HINT = 16;
+
+    // Compiled templates shared by all scenarios
+    private static final LruCache<String, ScopeTemplate> templates = new LruCache<>(1024);
+
+    // Longer sources, i.e request bodies, are seldom repeated and would evict the step arguments from the cache
+    static final int MAX_CACHED_LENGTH = 4096;
+
+    private final String source;
+
+    // Literal segments, there is always one more literal than variables
+    private final String[] literals;
+
+    // Variable names, the variable i is rendered between the literals i and i+1
+    private final String[] variables;
+
+    private final int literalsLength;
+
+    private ScopeTemplate(String source, List<String> literals, List<String> variables) {
+        this.source = source;
+        this.literals = literals.toArray(new String[0]);
+        this.variables = variables.toArray(new String[0]);
+        int length = 0;
+        for (String literal : this.literals) {
+            length += literal.length();
+        }
+        this.literalsLength = length;
+    }
+
+    /**
+     * Get the compiled template of a given text.
+     * Only the sources containing a variable and shorter than {@value #MAX_CACHED_LENGTH} characters are cached
+     *
+     * @param source
+     *            text containing `$name` variables
+     * @return compiled template
+     */
+    public static ScopeTemplate compile(String source) {
+        if (source.length() > MAX_CACHED_LENGTH) {
+            return parse(source);
+        }
+        if (!source.contains(VARIABLE_START)) {
+            return new ScopeTemplate(source, Collections.singletonList(source), Collections.emptyList());
+        }
+        return templates.get(source, ScopeTemplate::parse);
+    }
+
+    /**
+     * @return cache of the compiled templates
+     */
+    public static LruCache<String, ScopeTemplate> getCache() {
+        return templates;
+    }
+
+    static ScopeTemplate parse(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+
+        int literalStart = 0;
+        int searchFrom = 0;
+        int start;
+        while ((start = source.indexOf(VARIABLE_START, searchFrom)) != -1) {
+            int nameStart = start + VARIABLE_START.length();
+            int end = source.indexOf(VARIABLE_END, nameStart);
+            if (end == -1) {
+                break;
+            }
+            int newLine = source.indexOf('\n', nameStart);
+            if (newLine != -1 && newLine < end) {
+                // A variable name never spans several lines
+                searchFrom = start + 1;
+                continue;
+            }
+            literals.add(source.substring(literalStart, start));
+            variables.add(source.substring(nameStart, end));
+            literalStart = end + 1;
+            searchFrom = literalStart;
+        }
+        literals.add(source.substring(literalStart));
+
+        return new ScopeTemplate(source, literals, variables);
+    }
+
+    public boolean hasVariables() {
+        return variables.length > 0;
+    }
+
+    public int getVariableCount() {
+        return variables.length;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Replace each variable by its value
+     *
+     * @param resolver
+     *            function returning the value of a variable name
+     * @return rendered text
+     */
+    public String render(Function<String, Object> resolver) {
+        if (!hasVariables()) {
+            return source;
+        }
+        StringBuilder builder = new StringBuilder(literalsLength + variables.length * VARIABLE_LENGTH_HINT);
+        for (int i = 0; i < variables.length; i++) {
+            builder.append(literals[i]).append(resolver.apply(variables[i]));
+        }
+        return builder.append(literals[variables.length]).toString();
+    }
+}
@@ -0,0 +1,126 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * List the features and scenarios to split across the shards without running them.
+ * Scenarios are found with their english keywords (Scenario, Scenario Outline, Scenario Template, Example),
+ * the examples of a scenario outline belong to the outline unit
+ */
+final class FeatureScanner {
+
+    private static final String[] SCENARIO_KEYWORDS = {"Scenario:", "Scenario Outline:", "Scenario Template:",
+            "Example:"};
+
+    private FeatureScanner() {
+    }
+
+    /**
+     * @param features
+     *            feature files or directories, on the file system or classpath:path
+     * @param featureGranularity
+     *            if true, one unit per feature, one unit per scenario otherwise
+     * @return units, sorted by feature path and line
+     */
+    static List<ShardUnit> scan(List<String> features, boolean featureGranularity) {
+        List<ShardUnit> units = new ArrayList<>();
+        for (Path featureFile : findFeatureFiles(features)) {
+            String path = toRelativePath(featureFile);
+            List<Integer> lines = findScenarioLines(featureFile);
+            if (featureGranularity) {
+                units.add(new ShardUnit(path, 0, Integer.MAX_VALUE, lines.size()));
+                continue;
+            }
+            for (int i = 0; i < lines.size(); i++) {
+                int toLine = i + 1 < lines.size() ? lines.get(i + 1) : Integer.MAX_VALUE;
+                units.add(new ShardUnit(path, lines.get(i), toLine, 1));
+            }
+        }
+        return units;
+    }
+
+    /**
+     * @param file
+     *            file
+     * @return path relative to the working directory when possible, with / separators
+     */
+    static String toRelativePath(Path file) {
+        Path path = file.toAbsolutePath().normalize();
+        Path workingDirectory = Paths.get("").toAbsolutePath();
+        if (path.startsWith(workingDirectory)) {
+            path = workingDirectory.relativize(path);
+        }
+        return path.toString().replace('\\', '/');
+    }
+
+    static List<Integer> findScenarioLines(Path featureFile) {
+        List<Integer> lines = new ArrayList<>();
+        try (Stream<String> content = Files.lines(featureFile, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            for (String line : (Iterable<String>) content::iterator) {
+                lineNumber++;
+                String keyword = line.trim();
+                for (String scenarioKeyword : SCENARIO_KEYWORDS) {
+                    if (keyword.startsWith(scenarioKeyword)) {
+                        lines.add(lineNumber);
+                        break;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return lines;
+    }
+
+    private static List<Path> findFeatureFiles(List<String> features) {
+        List<Path> files = new ArrayList<>();
+        for (String feature : features) {
+            Path path = resolve(feature);
+            if (!Files.isDirectory(path)) {
+                files.add(path);
+                continue;
+            }
+            try (Stream<Path> content = Files.walk(path)) {
+                files.addAll(content.filter(file -> file.toString().endsWith(".feature"))
+                        .sorted()
+                        .collect(Collectors.toList()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * @param feature
+     *            feature file or directory, on the file system or classpath:path
+     * @return file system path
+     */
+    static Path resolve(String feature) {
+        if (!feature.startsWith("classpath:")) {
+            return Paths.get(feature);
+        }
+        String resource = feature.substring("classpath:".length()).replaceFirst("^/", "");
+        URL url = Thread.currentThread().getContextClassLoader().getResource(resource);
+        if (url == null || !"file".equals(url.getProtocol())) {
+            throw new IllegalArgumentException("Features must be files or directories: " + feature);
+        }
+        try {
+            return Paths.get(url.toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Invalid feature path: " + feature, e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import io.cucumber.plugin.ConcurrentEventListener;
+import io.cucumber.plugin.event.EventPublisher;
+import io.cucumber.plugin.event.TestCase;
+import io.cucumber.plugin.event.TestCaseFinished;
+import io.cucumber.plugin.event.TestRunFinished;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Cucumber plugin recording the duration of each scenario in a timings file, used to balance the shards.
+ * The recorded durations are merged into the existing file at the end of the run:
+ * --plugin fr.redfroggy.bdd.restapi.shard.ScenarioTimingPlugin:cucumber-timings.properties
+ */
+public final class ScenarioTimingPlugin implements ConcurrentEventListener {
+
+    private final Path file;
+
+    private final ScenarioTimings timings = new ScenarioTimings();
+
+    /**
+     * @param file
+     *            timings file
+     */
+    public ScenarioTimingPlugin(String file) {
+        this.file = Paths.get(file);
+    }
+
+    @Override
+    public void setEventPublisher(EventPublisher publisher) {
+        publisher.registerHandlerFor(TestCaseFinished.class, this::handleTestCaseFinished);
+        publisher.registerHandlerFor(TestRunFinished.class, event -> writeTimings());
+    }
+
+    private void handleTestCaseFinished(TestCaseFinished event) {
+        TestCase testCase = event.getTestCase();
+        timings.put(toFeaturePath(testCase.getUri()), testCase.getLocation().getLine(),
+                event.getResult().getDuration().toMillis());
+    }
+
+    private void writeTimings() {
+        ScenarioTimings recorded = ScenarioTimings.load(file);
+        recorded.putAll(timings);
+        recorded.store(file);
+    }
+
+    /**
+     * @param uri
+     *            feature uri, file:... or classpath:...
+     * @return feature path, as listed by the {@link FeatureScanner}
+     */
+    static String toFeaturePath(URI uri) {
+        Path path = "file".equals(uri.getScheme()) ? Paths.get(uri) : FeatureScanner.resolve(uri.toString());
+        return FeatureScanner.toRelativePath(path);
+    }
+}
@@ -0,0 +1,107 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Durations of the scenarios recorded by the previous runs, in ms, by feature path and scenario line.
+ * Stored as a properties file: path/users.feature:12=1530
+ */
+final class ScenarioTimings {
+
+    // Estimated duration of a scenario when no duration was ever recorded
+    static final long DEFAULT_SCENARIO_MILLIS = 1000;
+
+    // Durations by feature path and line
+    private final Map<String, Map<Integer, Long>> durations = new TreeMap<>();
+
+    /**
+     * @param file
+     *            timings file
+     * @return recorded timings, empty if the file does not exist
+     */
+    static ScenarioTimings load(Path file) {
+        ScenarioTimings timings = new ScenarioTimings();
+        if (!Files.exists(file)) {
+            return timings;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        properties.stringPropertyNames().forEach(key -> {
+            int separator = key.lastIndexOf(':');
+            timings.put(key.substring(0, separator), Integer.parseInt(key.substring(separator + 1)),
+                    Long.parseLong(properties.getProperty(key)));
+        });
+        return timings;
+    }
+
+    synchronized void put(String path, int line, long millis) {
+        durations.computeIfAbsent(path, key -> new TreeMap<>()).put(line, millis);
+    }
+
+    synchronized void putAll(ScenarioTimings timings) {
+        timings.durations.forEach((path, lines) -> lines.forEach((line, millis) -> put(path, line, millis)));
+    }
+
+    synchronized Long get(String path, int line) {
+        Map<Integer, Long> lines = durations.get(path);
+        return lines == null ? null : lines.get(line);
+    }
+
+    synchronized int size() {
+        return durations.values().stream().mapToInt(Map::size).sum();
+    }
+
+    /**
+     * @param unit
+     *            feature or scenario
+     * @return recorded duration of the unit scenarios, estimated with the average scenario duration if unknown
+     */
+    synchronized long estimate(ShardUnit unit) {
+        Map<Integer, Long> lines = durations.get(unit.getPath());
+        if (lines != null) {
+            long millis = lines.entrySet().stream()
+                    .filter(line -> unit.contains(line.getKey()))
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            if (millis > 0) {
+                return millis;
+            }
+        }
+        return unit.getScenarioCount() * getAverageMillis();
+    }
+
+    private long getAverageMillis() {
+        return Math.round(durations.values().stream()
+                .flatMap(lines -> lines.values().stream())
+                .mapToLong(Long::longValue)
+                .average()
+                .orElse(DEFAULT_SCENARIO_MILLIS));
+    }
+
+    synchronized void store(Path file) {
+        Properties properties = new Properties();
+        durations.forEach((path, lines) -> lines.forEach((line, millis) ->
+                properties.setProperty(path + ":" + line, String.valueOf(millis))));
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            try (OutputStream out = Files.newOutputStream(file)) {
+                properties.store(out, "Scenario durations in ms");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Features and scenarios run by a worker JVM
+ */
+public final class Shard {
+
+    private final int index;
+
+    private final List<ShardUnit> units = new ArrayList<>();
+
+    // Sum of the estimated durations of the units, in ms
+    private long estimatedMillis;
+
+    // Exit code of the worker, -1 until it is run
+    private int exitCode = -1;
+
+    Shard(int index) {
+        this.index = index;
+    }
+
+    void add(ShardUnit unit, long millis) {
+        units.add(unit);
+        estimatedMillis += millis;
+    }
+
+    void setExitCode(int exitCode) {
+        this.exitCode = exitCode;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public List<ShardUnit> getUnits() {
+        return units;
+    }
+
+    public long getEstimatedMillis() {
+        return estimatedMillis;
+    }
+
+    public int getExitCode() {
+        return exitCode;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Shard %d: %d units, estimated %.1f s, exit code %d", index, units.size(),
+                estimatedMillis / 1000.0, exitCode);
+    }
+}
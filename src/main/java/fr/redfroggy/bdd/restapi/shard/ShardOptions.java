@@ -0,0 +1,244 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Sharded run settings: features to split, number of worker JVMs and split granularity
+ */
+public final class ShardOptions {
+
+    // Feature files or directories
+    private final List<String> features = new ArrayList<>();
+
+    private final List<String> glue = new ArrayList<>();
+
+    // Arguments of the worker JVMs, i.e system properties
+    private final List<String> jvmArgs = new ArrayList<>();
+
+    // Optional tag expression
+    private String tags;
+
+    // Optional cucumber object factory class of the workers
+    private String objectFactory;
+
+    private int workers = Runtime.getRuntime().availableProcessors();
+
+    // If true, whole features are split across the workers instead of scenarios
+    private boolean featureGranularity;
+
+    // Scenario durations recorded by the previous runs
+    private Path timingsFile = Paths.get("cucumber-timings.properties");
+
+    // Reports and logs of the workers, merged report
+    private Path outputDirectory = Paths.get("target", "cucumber-shards");
+
+    private String classpath = System.getProperty("java.class.path");
+
+    /**
+     * Read options from command line arguments:
+     * --workers 4 [--granularity scenario|feature] [--timings file] [--output directory]
+     * [--options-class class] [--glue package] [--tags expression] [--object-factory class] [--jvm-arg arg]
+     * [--classpath classpath] features...
+     *
+     * @param args
+     *            command line arguments
+     * @return shard options
+     */
+    public static ShardOptions fromArgs(String... args) {
+        ShardOptions options = new ShardOptions();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--workers":
+                    options.setWorkers(Integer.parseInt(args[++i]));
+                    break;
+                case "--granularity":
+                    options.setFeatureGranularity("feature".equals(args[++i]));
+                    break;
+                case "--timings":
+                    options.setTimingsFile(Paths.get(args[++i]));
+                    break;
+                case "--output":
+                    options.setOutputDirectory(Paths.get(args[++i]));
+                    break;
+                case "--options-class":
+                    options.addCucumberOptions(loadClass(args[++i]));
+                    break;
+                case "--glue":
+                    options.addGlue(args[++i]);
+                    break;
+                case "--tags":
+                    options.setTags(args[++i]);
+                    break;
+                case "--object-factory":
+                    options.setObjectFactory(args[++i]);
+                    break;
+                case "--jvm-arg":
+                    options.addJvmArg(args[++i]);
+                    break;
+                case "--classpath":
+                    options.setClasspath(args[++i]);
+                    break;
+                default:
+                    options.addFeature(args[i]);
+            }
+        }
+        return options;
+    }
+
+    /**
+     * Add the features, glue and tags of a test class annotated with the cucumber options annotation
+     * of a cucumber runner, i.e {@code @CucumberOptions(features = "src/test/resources/features")}
+     *
+     * @param optionsClass
+     *            annotated test class
+     * @return shard options
+     */
+    public ShardOptions addCucumberOptions(Class<?> optionsClass) {
+        for (Annotation annotation : optionsClass.getAnnotations()) {
+            // The annotation belongs to the JUnit or TestNG runner, which may not be on the classpath
+            if ("CucumberOptions".equals(annotation.annotationType().getSimpleName())) {
+                features.addAll(Arrays.asList((String[]) getAttribute(annotation, "features")));
+                glue.addAll(Arrays.asList((String[]) getAttribute(annotation, "glue")));
+                String tagExpression = (String) getAttribute(annotation, "tags");
+                if (!tagExpression.isEmpty()) {
+                    tags = tagExpression;
+                }
+                return this;
+            }
+        }
+        throw new IllegalArgumentException(optionsClass.getName() + " is not annotated with @CucumberOptions");
+    }
+
+    /**
+     * @return cucumber command line arguments of a worker, the features and plugins excluded
+     */
+    List<String> toCucumberArgs() {
+        List<String> args = new ArrayList<>();
+        args.add("--publish-quiet");
+        for (String gluePackage : glue) {
+            args.add("--glue");
+            args.add(gluePackage);
+        }
+        if (tags != null) {
+            args.add("--tags");
+            args.add(tags);
+        }
+        if (objectFactory != null) {
+            args.add("--object-factory");
+            args.add(objectFactory);
+        }
+        return args;
+    }
+
+    private static Object getAttribute(Annotation annotation, String name) {
+        try {
+            return annotation.annotationType().getMethod(name).invoke(annotation);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalArgumentException("Unsupported cucumber options: " + annotation, e);
+        }
+    }
+
+    private static Class<?> loadClass(String name) {
+        try {
+            return Class.forName(name, false, Thread.currentThread().getContextClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown cucumber options class: " + name, e);
+        }
+    }
+
+    public List<String> getFeatures() {
+        return features;
+    }
+
+    public ShardOptions addFeature(String feature) {
+        this.features.add(feature);
+        return this;
+    }
+
+    public List<String> getGlue() {
+        return glue;
+    }
+
+    public ShardOptions addGlue(String gluePackage) {
+        this.glue.add(gluePackage);
+        return this;
+    }
+
+    public List<String> getJvmArgs() {
+        return jvmArgs;
+    }
+
+    public ShardOptions addJvmArg(String jvmArg) {
+        this.jvmArgs.add(jvmArg);
+        return this;
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    public ShardOptions setTags(String tags) {
+        this.tags = tags;
+        return this;
+    }
+
+    public String getObjectFactory() {
+        return objectFactory;
+    }
+
+    public ShardOptions setObjectFactory(String objectFactory) {
+        this.objectFactory = objectFactory;
+        return this;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public ShardOptions setWorkers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    public boolean isFeatureGranularity() {
+        return featureGranularity;
+    }
+
+    public ShardOptions setFeatureGranularity(boolean featureGranularity) {
+        this.featureGranularity = featureGranularity;
+        return this;
+    }
+
+    public Path getTimingsFile() {
+        return timingsFile;
+    }
+
+    public ShardOptions setTimingsFile(Path timingsFile) {
+        this.timingsFile = timingsFile;
+        return this;
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    public ShardOptions setOutputDirectory(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+        return this;
+    }
+
+    public String getClasspath() {
+        return classpath;
+    }
+
+    public ShardOptions setClasspath(String classpath) {
+        this.classpath = classpath;
+        return this;
+    }
+}
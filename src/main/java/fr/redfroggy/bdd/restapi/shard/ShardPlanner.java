@@ -0,0 +1,54 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Balance the units across the shards with the longest processing time first rule: units are sorted by
+ * decreasing estimated duration, each one is assigned to the shard with the lowest total duration
+ */
+final class ShardPlanner {
+
+    private ShardPlanner() {
+    }
+
+    /**
+     * @param units
+     *            features or scenarios to run
+     * @param timings
+     *            recorded scenario durations
+     * @param workers
+     *            maximum number of shards
+     * @return non empty shards
+     */
+    static List<Shard> plan(List<ShardUnit> units, ScenarioTimings timings, int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Number of workers must be positive: " + workers);
+        }
+        List<Shard> shards = new ArrayList<>();
+        PriorityQueue<Shard> lightestFirst = new PriorityQueue<>(
+                Comparator.<Shard>comparingLong(Shard::getEstimatedMillis).thenComparingInt(Shard::getIndex));
+        for (int index = 0; index < Math.min(workers, units.size()); index++) {
+            Shard shard = new Shard(index);
+            shards.add(shard);
+            lightestFirst.add(shard);
+        }
+
+        List<ShardUnit> longestFirst = new ArrayList<>(units);
+        longestFirst.sort(Comparator.<ShardUnit>comparingLong(timings::estimate).reversed()
+                .thenComparing(ShardUnit::getPath)
+                .thenComparingInt(ShardUnit::getFromLine));
+        for (ShardUnit unit : longestFirst) {
+            Shard shard = lightestFirst.poll();
+            shard.add(unit, timings.estimate(unit));
+            lightestFirst.add(shard);
+        }
+
+        // Run the units of a shard in the feature files order
+        shards.forEach(shard -> shard.getUnits().sort(Comparator.comparing(ShardUnit::getPath)
+                .thenComparingInt(ShardUnit::getFromLine)));
+        return shards;
+    }
+}
@@ -0,0 +1,180 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.cucumber.core.cli.Main;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Split features or scenarios across worker JVMs, balanced with the scenario durations of the previous runs.
+ * Each worker runs its shard with the cucumber command line and writes a json report and the scenario durations
+ * in its own directory. Once all the workers are done, their json reports are merged into a single report and the
+ * recorded durations are merged into the timings file, used to balance the next run.
+ * Workers get their shard index with the cucumber.restapi.shard.index system property, and the {shard} placeholder
+ * of their JVM arguments is replaced with it, i.e -Dserver.port=808{shard} so each worker starts its own server
+ */
+public final class ShardRunner {
+
+    public static final String SHARD_INDEX_PROPERTY = "cucumber.restapi.shard.index";
+
+    public static final String SHARD_PLACEHOLDER = "{shard}";
+
+    private final ShardOptions options;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    public ShardRunner(ShardOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<Shard> shards = new ShardRunner(ShardOptions.fromArgs(args)).run();
+        shards.forEach(System.out::println);
+        System.exit(isSuccessful(shards) ? 0 : 1);
+    }
+
+    /**
+     * @param shards
+     *            run shards
+     * @return true if all the workers succeeded
+     */
+    public static boolean isSuccessful(List<Shard> shards) {
+        return shards.stream().allMatch(shard -> shard.getExitCode() == 0);
+    }
+
+    /**
+     * Plan the shards without running them
+     *
+     * @return shards
+     */
+    public List<Shard> plan() {
+        List<ShardUnit> units = FeatureScanner.scan(options.getFeatures(), options.isFeatureGranularity());
+        return ShardPlanner.plan(units, ScenarioTimings.load(options.getTimingsFile()), options.getWorkers());
+    }
+
+    /**
+     * Run the shards in parallel worker JVMs, then merge their reports and timings
+     *
+     * @return run shards
+     * @throws IOException
+     *             if the workers or reports can not be written or read
+     * @throws InterruptedException
+     *             if interrupted while waiting for the workers
+     */
+    public List<Shard> run() throws IOException, InterruptedException {
+        List<Shard> shards = plan();
+
+        List<Process> workers = new ArrayList<>();
+        for (Shard shard : shards) {
+            workers.add(startWorker(shard));
+        }
+        try {
+            for (int i = 0; i < shards.size(); i++) {
+                shards.get(i).setExitCode(workers.get(i).waitFor());
+            }
+        } finally {
+            workers.forEach(Process::destroy);
+        }
+
+        mergeReports(shards);
+        mergeTimings(shards);
+        return shards;
+    }
+
+    /**
+     * @return merged json report of the workers
+     */
+    public Path getReportFile() {
+        return options.getOutputDirectory().resolve("cucumber.json");
+    }
+
+    private Process startWorker(Shard shard) throws IOException {
+        Path directory = getShardDirectory(shard);
+        Files.createDirectories(directory);
+
+        // Units are listed in a rerun file, the command line could be too long for thousands of scenarios
+        Files.write(directory.resolve("units.txt"),
+                shard.getUnits().stream().map(ShardUnit::getId).collect(Collectors.toList()), StandardCharsets.UTF_8);
+
+        return new ProcessBuilder(getWorkerCommand(shard))
+                .redirectErrorStream(true)
+                .redirectOutput(directory.resolve("cucumber.log").toFile())
+                .start();
+    }
+
+    /**
+     * @param shard
+     *            shard run by the worker
+     * @return command line of the worker JVM
+     */
+    List<String> getWorkerCommand(Shard shard) {
+        Path directory = getShardDirectory(shard);
+        String index = String.valueOf(shard.getIndex());
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String jvmArg : options.getJvmArgs()) {
+            command.add(jvmArg.replace(SHARD_PLACEHOLDER, index));
+        }
+        command.add("-D" + SHARD_INDEX_PROPERTY + "=" + index);
+        command.add("-cp");
+        command.add(options.getClasspath());
+        command.add(Main.class.getName());
+        command.addAll(options.toCucumberArgs());
+        command.add("--plugin");
+        command.add("json:" + directory.resolve("cucumber.json"));
+        command.add("--plugin");
+        command.add(ScenarioTimingPlugin.class.getName() + ":" + directory.resolve("timings.properties"));
+        command.add("@" + directory.resolve("units.txt"));
+        return command;
+    }
+
+    /**
+     * Merge the json reports of the workers, the scenarios of a feature run by several workers are grouped
+     */
+    private void mergeReports(List<Shard> shards) throws IOException {
+        Map<String, ObjectNode> features = new TreeMap<>();
+        for (Shard shard : shards) {
+            Path report = getShardDirectory(shard).resolve("cucumber.json");
+            if (!Files.exists(report)) {
+                continue;
+            }
+            for (JsonNode feature : objectMapper.readTree(report.toFile())) {
+                ObjectNode merged = features.get(feature.path("uri").asText());
+                if (merged == null) {
+                    features.put(feature.path("uri").asText(), (ObjectNode) feature);
+                } else {
+                    merged.withArray("elements").addAll((ArrayNode) feature.withArray("elements"));
+                }
+            }
+        }
+        Files.createDirectories(options.getOutputDirectory());
+        ArrayNode report = objectMapper.createArrayNode();
+        report.addAll(features.values());
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(getReportFile().toFile(), report);
+    }
+
+    private void mergeTimings(List<Shard> shards) {
+        ScenarioTimings timings = ScenarioTimings.load(options.getTimingsFile());
+        for (Shard shard : shards) {
+            timings.putAll(ScenarioTimings.load(getShardDirectory(shard).resolve("timings.properties")));
+        }
+        timings.store(options.getTimingsFile());
+    }
+
+    private Path getShardDirectory(Shard shard) {
+        return options.getOutputDirectory().resolve("shard-" + shard.getIndex());
+    }
+}
@@ -0,0 +1,62 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+/**
+ * Unit of work assigned to a shard: a whole feature or a scenario of a feature
+ */
+public final class ShardUnit {
+
+    // Relative path of the feature file, with / separators
+    private final String path;
+
+    // First line of the unit, 0 for a whole feature
+    private final int fromLine;
+
+    // Line following the unit (exclusive), Integer.MAX_VALUE for the end of the feature
+    private final int toLine;
+
+    private final int scenarioCount;
+
+    ShardUnit(String path, int fromLine, int toLine, int scenarioCount) {
+        this.path = path;
+        this.fromLine = fromLine;
+        this.toLine = toLine;
+        this.scenarioCount = scenarioCount;
+    }
+
+    /**
+     * @return feature path as passed to cucumber: path/users.feature or path/users.feature:12 for a scenario
+     */
+    public String getId() {
+        return fromLine == 0 ? path : path + ":" + fromLine;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public int getFromLine() {
+        return fromLine;
+    }
+
+    public int getToLine() {
+        return toLine;
+    }
+
+    public int getScenarioCount() {
+        return scenarioCount;
+    }
+
+    /**
+     * @param line
+     *            line of a scenario or example of the feature
+     * @return true if the line belongs to this unit
+     */
+    boolean contains(int line) {
+        return line >= fromLine && line < toLine;
+    }
+
+    @Override
+    public String toString() {
+        return getId();
+    }
+}
@@ -11,7 +11,8 @@ import org.junit.runner.RunWith;
  */
 @RunWith(Cucumber.class)
 @CucumberOptions(
-        plugin = {"pretty"},
+        plugin = {"pretty", "fr.redfroggy.bdd.restapi.jfr.JfrStepPlugin",
+                "fr.redfroggy.bdd.restapi.metrics.PrometheusMetricsPlugin:target/cucumber-metrics.prom"},
         features = "src/test/resources/features",
         glue = {"fr.redfroggy.bdd.restapi.glue"})
 public  final class RestApiCucumberTest {}
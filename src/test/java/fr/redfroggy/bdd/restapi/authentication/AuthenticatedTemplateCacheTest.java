@@ -0,0 +1,79 @@
+package fr.redfroggy.bdd.restapi.authentication;
+
+import fr.redfroggy.bdd.restapi.http.RestTemplateConfigurer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AuthenticatedTemplateCacheTest {
+
+    final AtomicInteger authentications = new AtomicInteger();
+
+    final BddRestTemplateAuthentication authentication = (login, password) -> {
+        authentications.incrementAndGet();
+        return new TestRestTemplate().withBasicAuth(login, password);
+    };
+
+    @Test
+    public void shouldReuseTemplateByCredentials() {
+        AuthenticatedTemplateCache cache = new AuthenticatedTemplateCache(2, 60000);
+
+        TestRestTemplate tony = cache.get(authentication, "tstark", "marvel");
+        Assert.assertSame(tony, cache.get(authentication, "tstark", "marvel"));
+        Assert.assertNotSame(tony, cache.get(authentication, "tstark", "other"));
+        Assert.assertNotSame(tony, cache.get(authentication, "bwayne", "marvel"));
+        cache.get((login, password) -> tony, "tstark", "marvel");
+
+        Assert.assertEquals(3, authentications.get());
+        Assert.assertEquals(1, cache.getTemplates().getHitCount());
+        Assert.assertEquals(4, cache.getTemplates().getMissCount());
+        Assert.assertEquals(2, cache.getTemplates().getMaxSize());
+        Assert.assertTrue(RestTemplateConfigurer.isConfigured(tony.getRestTemplate()));
+    }
+
+    @Test
+    public void shouldNotShareTemplateBetweenAuthenticationInstances() {
+        AuthenticatedTemplateCache cache = new AuthenticatedTemplateCache(2, 60000);
+        BddRestTemplateAuthentication first = new RootUriAuthentication("http://first");
+        BddRestTemplateAuthentication second = new RootUriAuthentication("http://second");
+
+        TestRestTemplate template = cache.get(first, "tstark", "marvel");
+
+        Assert.assertSame(template, cache.get(first, "tstark", "marvel"));
+        Assert.assertNotSame(template, cache.get(second, "tstark", "marvel"));
+        Assert.assertEquals("http://second", cache.get(second, "tstark", "marvel").getRootUri());
+    }
+
+    @Test
+    public void shouldAuthenticateEachTimeWhenDisabled() {
+        AuthenticatedTemplateCache cache = new AuthenticatedTemplateCache(2, 0);
+
+        Assert.assertNotSame(cache.get(authentication, "tstark", "marvel"),
+                cache.get(authentication, "tstark", "marvel"));
+        Assert.assertEquals(2, authentications.get());
+        Assert.assertNull(cache.getTemplates());
+    }
+
+    @Test
+    public void shouldShareDefaultCache() {
+        Assert.assertSame(AuthenticatedTemplateCache.shared(), AuthenticatedTemplateCache.shared());
+        Assert.assertEquals(32, AuthenticatedTemplateCache.shared().getTemplates().getMaxSize());
+    }
+
+    static final class RootUriAuthentication implements BddRestTemplateAuthentication {
+
+        private final String rootUri;
+
+        RootUriAuthentication(String rootUri) {
+            this.rootUri = rootUri;
+        }
+
+        @Override
+        public TestRestTemplate authenticate(String login, String password) {
+            return new TestRestTemplate(new RestTemplateBuilder().rootUri(rootUri)).withBasicAuth(login, password);
+        }
+    }
+}
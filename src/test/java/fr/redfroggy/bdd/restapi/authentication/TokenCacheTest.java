@@ -0,0 +1,227 @@
+package fr.redfroggy.bdd.restapi.authentication;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import fr.redfroggy.bdd.restapi.http.WebClientRequestEngine;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+public class TokenCacheTest {
+
+    WireMockServer tokenServer = new WireMockServer(wireMockConfig().dynamicPort());
+
+    @Before
+    public void setUp() {
+        tokenServer.start();
+    }
+
+    @After
+    public void tearDown() {
+        tokenServer.stop();
+    }
+
+    @Test
+    public void shouldFetchTokenOnceUnderConcurrency() {
+        stubToken(3600, 200);
+        StubTokenAuthentication authentication = new StubTokenAuthentication(new TokenCache(Duration.ofSeconds(30)));
+
+        List<CompletableFuture<BearerToken>> tokens = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tokens.add(CompletableFuture.supplyAsync(() ->
+                    authentication.tokenCache.getToken(authentication, "tstark", "marvel")));
+        }
+
+        BearerToken token = tokens.get(0).join();
+        Assert.assertEquals("token-tstark", token.getValue());
+        Assert.assertFalse(token.isExpired());
+        tokens.forEach(other -> Assert.assertSame(token, other.join()));
+        Assert.assertEquals(1, authentication.tokenCache.getFetchCount());
+        tokenServer.verify(1, postRequestedFor(urlEqualTo("/oauth/token")));
+    }
+
+    @Test
+    public void shouldRefreshTokenBeforeExpiry() throws InterruptedException {
+        stubToken(1, 0);
+        StubTokenAuthentication authentication = new StubTokenAuthentication(
+                new TokenCache(Duration.ofMillis(900)));
+
+        BearerToken token = authentication.tokenCache.getToken(authentication, "tstark", "marvel");
+        for (int i = 0; i < 50 && authentication.tokenCache.getFetchCount() < 2; i++) {
+            Thread.sleep(100);
+        }
+
+        Assert.assertTrue(authentication.tokenCache.getFetchCount() >= 2);
+        Assert.assertNotSame(token, authentication.tokenCache.getToken(authentication, "tstark", "marvel"));
+    }
+
+    @Test
+    public void shouldFetchExpiredToken() {
+        stubToken(0, 0);
+        StubTokenAuthentication authentication = new StubTokenAuthentication(new TokenCache(Duration.ofSeconds(30)));
+
+        BearerToken token = authentication.tokenCache.getToken(authentication, "tstark", "marvel");
+        authentication.tokenCache.getToken(authentication, "tstark", "marvel");
+
+        Assert.assertEquals(2, authentication.tokenCache.getFetchCount());
+        Assert.assertTrue(token.isExpired());
+        Assert.assertTrue(token.getExpiresIn().toNanos() <= 0);
+    }
+
+    @Test
+    public void shouldNotCacheFailedFetch() {
+        tokenServer.stubFor(post(urlEqualTo("/oauth/token")).willReturn(aResponse().withStatus(500)));
+        StubTokenAuthentication authentication = new StubTokenAuthentication(new TokenCache(Duration.ofSeconds(30)));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                authentication.tokenCache.getToken(authentication, "tstark", "marvel");
+                Assert.fail("Token fetch should fail");
+            } catch (HttpServerErrorException e) {
+                Assert.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, e.getStatusCode());
+            }
+        }
+        Assert.assertEquals(2, authentication.tokenCache.getFetchCount());
+
+        authentication.tokenCache.clear();
+    }
+
+    @Test
+    public void shouldSendBearerToken() {
+        stubToken(3600, 0);
+        tokenServer.stubFor(get(urlEqualTo("/users")).withHeader(HttpHeaders.AUTHORIZATION,
+                equalTo("Bearer token-tstark")).willReturn(aResponse().withStatus(200).withBody("[]")));
+        tokenServer.stubFor(get(urlEqualTo("/users")).withHeader(HttpHeaders.AUTHORIZATION,
+                equalTo("Basic other")).willReturn(aResponse().withStatus(202)));
+        StubTokenAuthentication authentication = new StubTokenAuthentication(new TokenCache(Duration.ofSeconds(30)));
+
+        TestRestTemplate template = authentication.authenticate("tstark", "marvel");
+        ResponseEntity<String> response = template.getForEntity(tokenServer.url("/users"), String.class);
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "Basic other");
+        response = template.exchange(tokenServer.url("/users"), HttpMethod.GET, new HttpEntity<>(headers),
+                String.class);
+        Assert.assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        Assert.assertEquals(1, authentication.tokenCache.getFetchCount());
+    }
+
+    @Test
+    public void shouldSendBearerTokenWithNonBlockingEngine() {
+        stubToken(3600, 0);
+        tokenServer.stubFor(get(urlEqualTo("/users")).withHeader(HttpHeaders.AUTHORIZATION,
+                equalTo("Bearer token-tstark")).willReturn(aResponse().withStatus(200).withBody("[]")));
+        tokenServer.stubFor(get(urlEqualTo("/users")).withHeader(HttpHeaders.AUTHORIZATION,
+                equalTo("Basic other")).willReturn(aResponse().withStatus(202)));
+        StubTokenAuthentication authentication = new StubTokenAuthentication(new TokenCache(Duration.ofSeconds(30)));
+        RestTemplate restTemplate = authentication.authenticate("tstark", "marvel").getRestTemplate();
+        URI uri = URI.create(tokenServer.url("/users"));
+
+        ResponseEntity<String> response = WebClientRequestEngine.shared()
+                .exchange(restTemplate, uri, HttpMethod.GET, HttpEntity.EMPTY).join().getEntity();
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assert.assertEquals("[]", response.getBody());
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, "Basic other");
+        response = WebClientRequestEngine.shared()
+                .exchange(restTemplate, uri, HttpMethod.GET, new HttpEntity<>(headers)).join().getEntity();
+        Assert.assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        Assert.assertEquals(1, authentication.tokenCache.getFetchCount());
+    }
+
+    @Test
+    public void shouldShareDefaultCache() {
+        Assert.assertSame(TokenCache.shared(), TokenCache.shared());
+
+        BddTokenAuthentication authentication = new BddTokenAuthentication() {
+            @Override
+            public BearerToken fetchToken(String login, String password) {
+                return BearerToken.of(login, Duration.ofHours(1));
+            }
+
+            @Override
+            public TestRestTemplate getTemplate() {
+                return new TestRestTemplate();
+            }
+        };
+        Assert.assertSame(TokenCache.shared(), authentication.getTokenCache());
+    }
+
+    @Test
+    public void shouldIdentifyPrincipals() {
+        Credentials credentials = new Credentials(StubTokenAuthentication.class, "tstark", "marvel");
+
+        Assert.assertEquals(credentials, new Credentials(StubTokenAuthentication.class, "tstark", "marvel"));
+        Assert.assertNotEquals(credentials, new Credentials(Object.class, "tstark", "marvel"));
+        Assert.assertNotEquals(credentials, new Credentials(StubTokenAuthentication.class, "bwayne", "marvel"));
+        Assert.assertNotEquals(credentials, new Credentials(StubTokenAuthentication.class, "tstark", "other"));
+        Assert.assertNotEquals(credentials, "tstark");
+        Assert.assertEquals("tstark", credentials.getLogin());
+        Assert.assertEquals("marvel", credentials.getPassword());
+    }
+
+    private void stubToken(long expiresIn, int delay) {
+        tokenServer.stubFor(post(urlEqualTo("/oauth/token")).willReturn(aResponse()
+                .withStatus(200)
+                .withFixedDelay(delay)
+                .withHeader(HttpHeaders.CONTENT_TYPE, "application/json")
+                .withBody("{\"access_token\":\"token-tstark\",\"expires_in\":" + expiresIn + "}")));
+    }
+
+    /**
+     * Token authentication calling the stub token endpoint
+     */
+    class StubTokenAuthentication implements BddTokenAuthentication {
+
+        final TokenCache tokenCache;
+
+        final TestRestTemplate template = new TestRestTemplate();
+
+        StubTokenAuthentication(TokenCache tokenCache) {
+            this.tokenCache = tokenCache;
+        }
+
+        @Override
+        public BearerToken fetchToken(String login, String password) {
+            MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+            form.add("grant_type", "password");
+            form.add("username", login);
+            form.add("password", password);
+            Map<?, ?> response = new RestTemplate().postForObject(tokenServer.url("/oauth/token"), form, Map.class);
+            return BearerToken.of((String) response.get("access_token"),
+                    Duration.ofSeconds(((Number) response.get("expires_in")).longValue()));
+        }
+
+        @Override
+        public TestRestTemplate getTemplate() {
+            return template;
+        }
+
+        @Override
+        public TokenCache getTokenCache() {
+            return tokenCache;
+        }
+    }
+}
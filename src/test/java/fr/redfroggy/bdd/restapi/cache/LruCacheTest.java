@@ -0,0 +1,81 @@
+package fr.redfroggy.bdd.restapi.cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LruCacheTest {
+
+    LruCache<String, String> cache = new LruCache<>(2);
+
+    @Test
+    public void shouldCountHitsAndMisses() {
+        Assert.assertEquals("A", cache.get("a", String::toUpperCase));
+        Assert.assertEquals("A", cache.get("a", key -> "other"));
+
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntry() {
+        cache.get("a", String::toUpperCase);
+        cache.get("b", String::toUpperCase);
+        cache.get("a", String::toUpperCase);
+        cache.get("c", String::toUpperCase);
+
+        Assert.assertEquals(1, cache.getEvictionCount());
+        Assert.assertEquals(2, cache.getMaxSize());
+        Assert.assertEquals("A", cache.get("a", key -> "other"));
+        Assert.assertEquals("other", cache.get("b", key -> "other"));
+
+        cache.clear();
+        Assert.assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldExpireEntries() {
+        AtomicLong clock = new AtomicLong();
+        LruCache<String, String> expiringCache = new LruCache<>(2, 10, clock::get);
+
+        Assert.assertEquals("A", expiringCache.get("a", String::toUpperCase));
+        clock.set(9);
+        Assert.assertEquals("A", expiringCache.get("a", key -> "other"));
+        clock.set(10);
+        Assert.assertEquals("other", expiringCache.get("a", key -> "other"));
+        Assert.assertEquals(1, expiringCache.getExpirationCount());
+        Assert.assertEquals(1, expiringCache.getHitCount());
+        Assert.assertEquals(2, expiringCache.getMissCount());
+
+        expiringCache.get("b", String::toUpperCase);
+        expiringCache.get("c", String::toUpperCase);
+        Assert.assertEquals(1, expiringCache.getEvictionCount());
+        Assert.assertEquals("B", expiringCache.remove("b"));
+        Assert.assertNull(expiringCache.remove("b"));
+
+        expiringCache.clear();
+        Assert.assertEquals(0, expiringCache.size());
+    }
+
+    @Test
+    public void shouldRemoveEntry() {
+        cache.get("a", String::toUpperCase);
+
+        Assert.assertEquals("A", cache.remove("a"));
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, new LruCache<String, String>(1, 0, TimeUnit.SECONDS).getExpirationCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidSize() {
+        new LruCache<String, String>(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeTimeToLive() {
+        new LruCache<String, String>(1, -1, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,276 @@
+package fr.redfroggy.bdd.restapi.glue;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import fr.redfroggy.bdd.restapi.http.EngineResponse;
+import fr.redfroggy.bdd.restapi.http.RequestEngine;
+import fr.redfroggy.bdd.restapi.http.SpooledResponseBody;
+import fr.redfroggy.bdd.restapi.metrics.ResponseTimes;
+import fr.redfroggy.bdd.restapi.recording.ExchangeRecording;
+import fr.redfroggy.bdd.restapi.recording.RecordingMode;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class AbstractBddStepDefinitionTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    DefaultRestApiBddStepDefinition stepDefinition = new DefaultRestApiBddStepDefinition(new TestRestTemplate(), null);
+
+    @Test
+    public void shouldParseResponseBodyOnce() {
+        stepDefinition.setResponseEntity(ResponseEntity.ok("{\"id\":\"1\",\"name\":\"Tony\"}"));
+
+        Assert.assertEquals("1", stepDefinition.getJsonPath("$.id"));
+        Assert.assertEquals("Tony", stepDefinition.getJsonPath("$.name"));
+        Assert.assertEquals(1, stepDefinition.getBodyDocumentReuseCount());
+    }
+
+    @Test
+    public void shouldParseNewResponseBody() {
+        stepDefinition.setResponseEntity(ResponseEntity.ok("{\"id\":\"1\"}"));
+        Assert.assertEquals("1", stepDefinition.getJsonPath("$.id"));
+
+        stepDefinition.setResponseEntity(ResponseEntity.ok("{\"id\":\"2\"}"));
+        Assert.assertEquals("2", stepDefinition.getJsonPath("$.id"));
+        Assert.assertEquals(0, stepDefinition.getBodyDocumentReuseCount());
+    }
+
+    @Test
+    public void shouldNotParseStreamedBodyToCheckMissingPath() throws IOException {
+        stepDefinition.streamedBody = SpooledResponseBody.read(new ByteArrayInputStream(
+                "[{\"id\":\"1\"}]".getBytes(StandardCharsets.UTF_8)), 1024);
+        stepDefinition.checkJsonPathDoesntExist("$.[4].id");
+
+        // The first parse of the whole document is not a reuse
+        stepDefinition.getJsonPath("$[?(@.id == '1')].id");
+        Assert.assertEquals(0, stepDefinition.getBodyDocumentReuseCount());
+
+        stepDefinition.streamedBody = SpooledResponseBody.read(new ByteArrayInputStream(new byte[0]), 1024);
+        stepDefinition.checkJsonPathDoesntExist("$.[4].id");
+    }
+
+    @Test
+    public void shouldReplayRecordedResponses() {
+        stepDefinition.exchangeRecording = ExchangeRecording.create(folder.getRoot().toPath());
+        stepDefinition.recordingMode = RecordingMode.RECORD;
+        stepDefinition.streamingMode = true;
+        respondWith("{\"id\":\"1\"}");
+        stepDefinition.request("/users/1", HttpMethod.GET);
+        Assert.assertEquals(1, stepDefinition.exchangeRecording.size());
+
+        DefaultRestApiBddStepDefinition replayed = new DefaultRestApiBddStepDefinition(new TestRestTemplate(), null);
+        replayed.exchangeRecording = ExchangeRecording.open(folder.getRoot().toPath());
+        replayed.recordingMode = RecordingMode.REPLAY;
+        replayed.request("/users/1", HttpMethod.GET);
+        Assert.assertEquals("1", replayed.getJsonPath("$.id"));
+        replayed.initRecording();
+        replayed.request("/users/1", HttpMethod.GET);
+        Assert.assertEquals("1", replayed.getJsonPath("$.id"));
+    }
+
+    @Test
+    public void shouldEmitFlightRecorderEvents() throws IOException {
+        respondWith("{\"id\":\"1\"}");
+        stepDefinition.scenarioScope.getJsonPaths().put("id", "1");
+
+        Path file = folder.getRoot().toPath().resolve("glue.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("fr.redfroggy.bdd.restapi.HttpExchange");
+            recording.enable("fr.redfroggy.bdd.restapi.JsonParse");
+            recording.enable("fr.redfroggy.bdd.restapi.ScopeSubstitution");
+            recording.start();
+            stepDefinition.setBody("{\"id\":\"`$id`\"}");
+            stepDefinition.request("/users/{id} with id = `$id`", HttpMethod.PUT);
+            stepDefinition.getJsonPath("$.id");
+            stepDefinition.requestConcurrently(Collections.singletonMap("user", "/users/1"), HttpMethod.GET);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .collect(Collectors.toMap(AbstractBddStepDefinitionTest::getEventKey, Function.identity(),
+                        (first, second) -> first));
+        RecordedEvent exchange = events.get("fr.redfroggy.bdd.restapi.HttpExchange PUT");
+        Assert.assertEquals("PUT", exchange.getString("method"));
+        Assert.assertEquals("/users/{id}", exchange.getString("resource"));
+        Assert.assertEquals("/users/1", exchange.getString("uri"));
+        Assert.assertEquals(200, exchange.getInt("status"));
+        Assert.assertEquals(10, exchange.getLong("responseBytes"));
+        Assert.assertEquals(-1, exchange.getLong("firstByteNanos"));
+        Assert.assertEquals("/users/1", events.get("fr.redfroggy.bdd.restapi.HttpExchange GET").getString("resource"));
+        Assert.assertEquals(10, events.get("fr.redfroggy.bdd.restapi.JsonParse response").getLong("size"));
+        Assert.assertEquals(10, events.get("fr.redfroggy.bdd.restapi.JsonParse request").getLong("size"));
+        Assert.assertEquals(1, events.get("fr.redfroggy.bdd.restapi.ScopeSubstitution").getInt("variables"));
+    }
+
+    @Test
+    public void shouldGroupResponseTimesByUriTemplate() {
+        List<URI> uris = respondWith("{}").uris;
+        stepDefinition.scenarioScope.getJsonPaths().put("userId", "1");
+
+        stepDefinition.request("/users/{id}/roles/{role} with id = `$userId`, role = admin", HttpMethod.GET);
+        stepDefinition.request("/users/{id}/roles/{role} with role=user,id=2", HttpMethod.GET);
+        stepDefinition.request("/users/`$userId`", HttpMethod.GET);
+
+        Assert.assertEquals(Arrays.asList(URI.create("/users/1/roles/admin"), URI.create("/users/2/roles/user"),
+                URI.create("/users/1")), uris);
+        Assert.assertEquals(2, stepDefinition.responseTimes.getHistogram("/users/{id}/roles/{role}").getCount());
+        Assert.assertEquals(1, stepDefinition.responseTimes.getHistogram("/users/`$userId`").getCount());
+        stepDefinition.checkResponseTimePercentile(95, 1, "/users/`$userId`", 10000);
+    }
+
+    @Test
+    public void shouldRejectPercentileOfMoreRequestsThanKept() {
+        respondWith("{}");
+        for (int i = 0; i < 2; i++) {
+            stepDefinition.request("/users", HttpMethod.GET);
+        }
+
+        try {
+            stepDefinition.checkResponseTimePercentile(95, ResponseTimes.WINDOW_SIZE + 1, "/users", 10000);
+            Assert.fail("The percentile of more requests than kept must be rejected");
+        } catch (AssertionError e) {
+            Assert.assertTrue(e.getMessage().contains("Only the last 1024 response times"));
+        }
+        try {
+            stepDefinition.checkResponseTimePercentile(95, 3, "/users", 10000);
+            Assert.fail("The percentile of more requests than made must fail");
+        } catch (AssertionError e) {
+            Assert.assertTrue(e.getMessage().contains("Response times of the last requests to /users"));
+        }
+    }
+
+    @Test
+    public void shouldResolveResourcesAgainstCurrentBaseUri() {
+        List<URI> uris = respondWith("{}").uris;
+
+        stepDefinition.baseUri = "http://localhost:8080/my api";
+        stepDefinition.queryParams.put("name", "Tony Stark");
+        stepDefinition.request("/users", HttpMethod.GET);
+        stepDefinition.request("/users/1", HttpMethod.GET);
+        stepDefinition.baseUri = "http://localhost:9090";
+        stepDefinition.request("/users", HttpMethod.GET);
+
+        Assert.assertEquals(Arrays.asList(URI.create("http://localhost:8080/my%20api/users?name=Tony%20Stark"),
+                URI.create("http://localhost:8080/my%20api/users/1?name=Tony%20Stark"),
+                URI.create("http://localhost:9090/users?name=Tony%20Stark")), uris);
+    }
+
+    @Test
+    public void shouldSendPreEncodedBodies() throws IOException {
+        List<HttpEntity<?>> entities = respondWith("{}").entities;
+        stepDefinition.preEncodedBodyMode = true;
+        stepDefinition.scenarioScope.getJsonPaths().put("id", "1");
+
+        stepDefinition.setBody("{\"id\": \"`$id`\", \"roles\": [\"admin\"]}");
+        stepDefinition.request("/users", HttpMethod.POST);
+        byte[] body = (byte[]) stepDefinition.body;
+        Assert.assertNull(stepDefinition.headers.getContentType());
+        stepDefinition.setBody("{\"id\": \"`$id`\", \"roles\": [\"admin\"]}");
+        stepDefinition.headers.setContentType(MediaType.TEXT_PLAIN);
+        stepDefinition.request("/users/1", HttpMethod.PUT);
+
+        Assert.assertSame(body, stepDefinition.body);
+        Assert.assertEquals("{\"id\": \"1\", \"roles\": [\"admin\"]}", new String(body, StandardCharsets.UTF_8));
+        Assert.assertSame(body, entities.get(0).getBody());
+        Assert.assertEquals(MediaType.APPLICATION_JSON, entities.get(0).getHeaders().getContentType());
+        Assert.assertEquals(MediaType.TEXT_PLAIN, entities.get(1).getHeaders().getContentType());
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void shouldRejectInvalidPreEncodedBodies() throws IOException {
+        stepDefinition.preEncodedBodyMode = true;
+        stepDefinition.setBody("{\"id\": \"1\", \"roles\": [}");
+    }
+
+    @Test(expected = JsonParseException.class)
+    public void shouldRejectPreEncodedBodiesWithTrailingBracket() throws IOException {
+        stepDefinition.preEncodedBodyMode = true;
+        stepDefinition.setBody("{\"id\": \"1\"}}");
+    }
+
+    @Test(expected = AssertionError.class)
+    public void shouldRejectPreEncodedBodiesWithTrailingValue() throws IOException {
+        stepDefinition.preEncodedBodyMode = true;
+        stepDefinition.setBody("{\"id\": \"1\"} {\"id\": \"2\"}");
+    }
+
+    @Test(expected = AssertionError.class)
+    public void shouldRejectEmptyPreEncodedBodies() throws IOException {
+        stepDefinition.preEncodedBodyMode = true;
+        stepDefinition.setBody(" ");
+    }
+
+    @Test(expected = AssertionError.class)
+    public void shouldRejectInvalidUriTemplateValues() {
+        stepDefinition.request("/users/{id} with 1", HttpMethod.GET);
+    }
+
+    /**
+     * Answer the requests of the step definition with a given body, without server
+     */
+    private StubRequestEngine respondWith(String body) {
+        StubRequestEngine engine = new StubRequestEngine(body);
+        stepDefinition.requestEngine = engine;
+        return engine;
+    }
+
+    private static String getEventKey(RecordedEvent event) {
+        String key = event.getEventType().getName();
+        if (event.hasField("source")) {
+            key += " " + event.getString("source");
+        }
+        if (event.hasField("method")) {
+            key += " " + event.getString("method");
+        }
+        return key;
+    }
+
+    // Engine answering every request with the same body, recording the sent requests
+    private static final class StubRequestEngine implements RequestEngine {
+
+        final List<URI> uris = Collections.synchronizedList(new ArrayList<>());
+
+        final List<HttpEntity<?>> entities = Collections.synchronizedList(new ArrayList<>());
+
+        private final String body;
+
+        StubRequestEngine(String body) {
+            this.body = body;
+        }
+
+        @Override
+        public CompletableFuture<EngineResponse> exchange(RestTemplate restTemplate, URI uri, HttpMethod method,
+                                                          HttpEntity<?> httpEntity) {
+            uris.add(uri);
+            entities.add(httpEntity);
+            return CompletableFuture.completedFuture(new EngineResponse(ResponseEntity.ok(body), -1));
+        }
+    }
+}
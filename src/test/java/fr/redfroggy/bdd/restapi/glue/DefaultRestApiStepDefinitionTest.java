@@ -10,7 +10,8 @@ import org.springframework.boot.test.web.client.TestRestTemplate;
  * In this file you can add your own steps implementation.
  */
 @CucumberContextConfiguration
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.DEFINED_PORT, properties = {
+        "server.compression.enabled=true", "server.compression.min-response-size=1"})
 public class DefaultRestApiStepDefinitionTest implements BddRestTemplateAuthentication {
 
     final TestRestTemplate template;
@@ -0,0 +1,59 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class BaseUriTest {
+
+    @Test
+    public void shouldBuildSameUrisAsUriComponentsBuilder() {
+        Map<String, String> queryParams = new LinkedHashMap<>();
+        queryParams.put("name", "Tony Stark");
+        queryParams.put("tags", "a,b|c");
+        queryParams.put("flag", null);
+
+        String[] baseUris = {"", "http://localhost:8080", "http://localhost:8080/api", "https://user@host/a b"};
+        String[] resources = {"/users", "/users/1?sort=name&order=desc", "/users/Zo\u00e9 %2F<1>", "/users#top?page=2",
+                "/search?q=[a]#frag?x", "/users/\u00a0\u0085\t", "/emoji/\ud83d\ude00", ""};
+        for (String baseUri : baseUris) {
+            for (String resource : resources) {
+                Assert.assertEquals(baseUri + resource, expected(baseUri, resource, queryParams),
+                        BaseUri.of(baseUri).resolve(resource, queryParams));
+                Assert.assertEquals(baseUri + resource, expected(baseUri, resource, Collections.emptyMap()),
+                        BaseUri.of(baseUri).resolve(resource, Collections.emptyMap()));
+            }
+        }
+    }
+
+    @Test
+    public void shouldParseBaseUriOnce() {
+        BaseUri baseUri = BaseUri.of("http://localhost:8080/my api");
+
+        Assert.assertSame(baseUri, BaseUri.of("http://localhost:8080/my api"));
+        Assert.assertEquals("http://localhost:8080/my api", baseUri.getSource());
+        Assert.assertEquals("http://localhost:8080/my%20api", baseUri.toString());
+        Assert.assertSame(BaseUri.of(""), BaseUri.parse(""));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBaseUriWithQuery() {
+        BaseUri.parse("http://localhost:8080?debug=true");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectBaseUriWithFragment() {
+        BaseUri.parse("http://localhost:8080#users");
+    }
+
+    private static URI expected(String baseUri, String resource, Map<String, String> queryParams) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUriString(baseUri + resource);
+        queryParams.forEach(builder::queryParam);
+        return builder.build().toUri();
+    }
+}
@@ -0,0 +1,135 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+public class HttpConnectionPoolTest {
+
+    HttpConnectionPool pool = new HttpConnectionPool(new HttpConnectionPool.Settings()
+            .setMaxTotal(20)
+            .setMaxPerRoute(5)
+            .setMaxPerRoute("http://localhost:8080", 10)
+            .setIdleTimeout(1000)
+            .setTimeToLive(60000));
+
+    @After
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void shouldApplyLimits() {
+        PoolStats totalStats = pool.getTotalStats();
+        Assert.assertEquals(20, totalStats.getMax());
+        Assert.assertEquals(0, totalStats.getLeased());
+        Assert.assertEquals(0, totalStats.getAvailable());
+        Assert.assertEquals(0, totalStats.getPending());
+
+        Assert.assertEquals(10, pool.getStats("http://localhost:8080").getMax());
+        Assert.assertEquals(5, pool.getStats("https://localhost").getMax());
+        Assert.assertEquals(5, pool.getStats("http://localhost").getMax());
+        Assert.assertNotNull(pool.getRequestFactory());
+    }
+
+    @Test
+    public void shouldReadSystemProperties() {
+        System.setProperty(HttpConnectionPool.PROPERTY_PREFIX + "max-total", "30");
+        System.setProperty(HttpConnectionPool.PROPERTY_PREFIX + "routes", "http://localhost:8080=12, invalid");
+        try {
+            HttpConnectionPool.Settings settings = HttpConnectionPool.Settings.fromSystemProperties();
+
+            Assert.assertEquals(30, settings.getMaxTotal());
+            Assert.assertEquals(50, settings.getMaxPerRoute());
+            Assert.assertEquals(Integer.valueOf(12), settings.getRoutes().get("http://localhost:8080"));
+            Assert.assertEquals(1, settings.getRoutes().size());
+            Assert.assertEquals(30000, settings.getIdleTimeout());
+            Assert.assertEquals(-1, settings.getTimeToLive());
+        } finally {
+            System.clearProperty(HttpConnectionPool.PROPERTY_PREFIX + "max-total");
+            System.clearProperty(HttpConnectionPool.PROPERTY_PREFIX + "routes");
+        }
+    }
+
+    @Test
+    public void shouldNotShareCookies() {
+        WireMockServer server = new WireMockServer(wireMockConfig().dynamicPort());
+        server.start();
+        try {
+            server.stubFor(get("/login").willReturn(ok().withHeader(HttpHeaders.SET_COOKIE, "SESSION=tstark; Path=/")));
+            server.stubFor(get("/users").willReturn(ok()));
+            RestTemplate restTemplate = new RestTemplate(pool.getRequestFactory());
+
+            restTemplate.getForEntity(server.baseUrl() + "/login", String.class);
+            restTemplate.getForEntity(server.baseUrl() + "/users", String.class);
+
+            server.verify(getRequestedFor(urlEqualTo("/users")).withoutHeader(HttpHeaders.COOKIE));
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void shouldLeaveContentEncodingToRequestsSettingIt() throws IOException {
+        WireMockServer server = new WireMockServer(wireMockConfig().dynamicPort().gzipDisabled(true));
+        server.start();
+        try {
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip)) {
+                out.write("[]".getBytes(StandardCharsets.UTF_8));
+            }
+            server.stubFor(get("/users").willReturn(ok().withHeader(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .withBody(gzip.toByteArray())));
+            RestTemplate restTemplate = new RestTemplate(pool.getRequestFactory());
+
+            // Negotiated and decoded by the http client by default
+            ResponseEntity<String> decoded = restTemplate.getForEntity(server.baseUrl() + "/users", String.class);
+            Assert.assertEquals("[]", decoded.getBody());
+            Assert.assertFalse(decoded.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+            server.verify(getRequestedFor(urlEqualTo("/users"))
+                    .withHeader(HttpHeaders.ACCEPT_ENCODING, containing("gzip")));
+
+            // Received as sent on the wire when the request sets its own Accept-Encoding header
+            HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            ResponseEntity<byte[]> wire = restTemplate.exchange(server.baseUrl() + "/users", HttpMethod.GET,
+                    new HttpEntity<>(headers), byte[].class);
+            Assert.assertEquals("gzip", wire.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+            Assert.assertArrayEquals(gzip.toByteArray(), wire.getBody());
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void shouldCreateRequestsBeforeChoosingClient() throws IOException {
+        URI uri = URI.create("http://localhost:8080/users");
+        ClientHttpRequest request = pool.getRequestFactory().createRequest(uri, HttpMethod.POST);
+
+        Assert.assertEquals(HttpMethod.POST, request.getMethod());
+        Assert.assertEquals("POST", request.getMethodValue());
+        Assert.assertEquals(uri, request.getURI());
+    }
+
+    @Test
+    public void shouldShareDefaultPool() {
+        Assert.assertSame(HttpConnectionPool.shared(), HttpConnectionPool.shared());
+    }
+}
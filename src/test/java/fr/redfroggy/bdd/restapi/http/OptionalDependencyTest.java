@@ -0,0 +1,29 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OptionalDependencyTest {
+
+    @Test
+    public void shouldFindPresentDependency() {
+        Assert.assertTrue(OptionalDependency.NON_BLOCKING_ENGINE.isPresent());
+        OptionalDependency.NON_BLOCKING_ENGINE.require("The non-blocking http engine");
+        Assert.assertEquals("spring-webflux and reactor-netty-http", OptionalDependency.NON_BLOCKING_ENGINE.toString());
+        Assert.assertTrue(OptionalDependency.PROMETHEUS_METRICS.isPresent());
+    }
+
+    @Test
+    public void shouldRejectMissingDependency() {
+        OptionalDependency dependency = new OptionalDependency("missing-artifact", "java.lang.String",
+                "fr.redfroggy.Missing");
+
+        Assert.assertFalse(dependency.isPresent());
+        try {
+            dependency.require("The feature");
+            Assert.fail("Missing dependency must fail");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("The feature requires missing-artifact on the classpath", e.getMessage());
+        }
+    }
+}
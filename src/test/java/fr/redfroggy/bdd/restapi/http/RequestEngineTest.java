@@ -0,0 +1,71 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.net.URI;
+
+public class RequestEngineTest {
+
+    @Test
+    public void shouldSelectEngine() {
+        Assert.assertSame(RestTemplateRequestEngine.INSTANCE, RequestEngine.forName("blocking"));
+        Assert.assertSame(WebClientRequestEngine.shared(), RequestEngine.forName("non-blocking"));
+        Assert.assertSame(RestTemplateRequestEngine.INSTANCE, RequestEngine.fromSystemProperties());
+    }
+
+    @Test
+    public void shouldSelectNonBlockingEngineForHttp2() {
+        System.setProperty(HttpTransport.PROTOCOL_PROPERTY, "h2c");
+        try {
+            Assert.assertSame(HttpTransport.H2C, HttpTransport.fromSystemProperties());
+            Assert.assertSame(WebClientRequestEngine.shared(), RequestEngine.fromSystemProperties());
+        } finally {
+            System.clearProperty(HttpTransport.PROTOCOL_PROPERTY);
+        }
+    }
+
+    @Test
+    public void shouldSelectTransport() {
+        Assert.assertSame(HttpTransport.HTTP_1_1, HttpTransport.fromSystemProperties());
+        Assert.assertSame(HttpTransport.H2, HttpTransport.forName("h2"));
+        Assert.assertEquals("h2", HttpTransport.H2.toString());
+        Assert.assertTrue(HttpTransport.H2.isMultiplexed());
+        Assert.assertFalse(HttpTransport.HTTP_1_1.isMultiplexed());
+        Assert.assertEquals(2, HttpTransport.H2C.getProtocols().length);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownTransport() {
+        HttpTransport.forName("spdy");
+    }
+
+    @Test
+    public void shouldCollectInitializedHeaders() {
+        WebClientRequestEngine.InitializedRequest request = new WebClientRequestEngine.InitializedRequest(
+                HttpMethod.POST, URI.create("/users"));
+        request.getHeaders().setBasicAuth("tstark", "marvel");
+
+        Assert.assertEquals(HttpMethod.POST, request.getMethod());
+        Assert.assertEquals("POST", request.getMethodValue());
+        Assert.assertEquals(URI.create("/users"), request.getURI());
+        Assert.assertNotNull(request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotWriteInitializedRequestBody() {
+        new WebClientRequestEngine.InitializedRequest(HttpMethod.POST, URI.create("/users")).getBody();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotSendInitializedRequest() {
+        new WebClientRequestEngine.InitializedRequest(HttpMethod.POST, URI.create("/users")).execute();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownEngine() {
+        RequestEngine.forName("unknown");
+    }
+}
@@ -0,0 +1,134 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class ResponseCompressionInterceptorTest {
+
+    static final String BODY = "[{\"id\":\"1\",\"firstName\":\"Tony\"},{\"id\":\"2\",\"firstName\":\"Tony\"}]";
+
+    @Test
+    public void shouldInstallOnce() {
+        RestTemplate restTemplate = new RestTemplate();
+        ResponseCompressionInterceptor.install(restTemplate);
+        ResponseCompressionInterceptor.install(restTemplate);
+
+        Assert.assertEquals(1, restTemplate.getInterceptors().size());
+    }
+
+    @Test
+    public void shouldDecodeGzipBody() throws IOException {
+        ByteArrayOutputStream wire = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(wire)) {
+            out.write(BODY.getBytes(StandardCharsets.UTF_8));
+        }
+
+        ClientHttpResponse response = intercept(wire.toByteArray(), "GZIP");
+
+        Assert.assertEquals(BODY, StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+        Assert.assertFalse(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+        Assert.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assert.assertEquals(200, response.getRawStatusCode());
+        Assert.assertEquals("OK", response.getStatusText());
+        response.close();
+
+        ResponseCompression compression = ResponseCompressionInterceptor.pollCompression();
+        Assert.assertEquals("gzip", compression.getEncoding());
+        Assert.assertTrue(compression.isCompressed());
+        Assert.assertEquals(wire.size(), compression.getWireBytes());
+        Assert.assertEquals(BODY.length(), compression.getDecodedBytes());
+        Assert.assertTrue(compression.getDecodeNanos() > 0);
+        Assert.assertEquals((double) BODY.length() / wire.size(), compression.getRatio(), 0);
+        Assert.assertNull(ResponseCompressionInterceptor.pollCompression());
+    }
+
+    @Test
+    public void shouldDecodeDeflateBodies() throws IOException {
+        for (boolean raw : new boolean[]{false, true}) {
+            ByteArrayOutputStream wire = new ByteArrayOutputStream();
+            try (OutputStream out = new DeflaterOutputStream(wire, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+                out.write(BODY.getBytes(StandardCharsets.UTF_8));
+            }
+
+            InputStream body = intercept(wire.toByteArray(), "deflate").getBody();
+            ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+            for (int value = body.read(); value != -1; value = body.read()) {
+                decoded.write(value);
+            }
+
+            Assert.assertEquals(BODY, new String(decoded.toByteArray(), StandardCharsets.UTF_8));
+            Assert.assertEquals(wire.size(), ResponseCompressionInterceptor.pollCompression().getWireBytes());
+        }
+    }
+
+    @Test
+    public void shouldReadEmptyEncodedBodies() throws IOException {
+        for (String encoding : new String[]{"gzip", "deflate"}) {
+            InputStream body = intercept(new byte[0], encoding).getBody();
+
+            Assert.assertEquals(-1, body.read());
+            Assert.assertEquals(0, ResponseCompressionInterceptor.pollCompression().getDecodedBytes());
+        }
+    }
+
+    @Test(expected = EOFException.class)
+    public void shouldRejectTruncatedDeflateBody() throws IOException {
+        intercept(new byte[]{3}, "deflate").getBody().read();
+    }
+
+    @Test
+    public void shouldCountIdentityBody() throws IOException {
+        ClientHttpResponse response = intercept(BODY.getBytes(StandardCharsets.UTF_8), null);
+
+        InputStream body = response.getBody();
+        Assert.assertSame(body, response.getBody());
+        Assert.assertEquals('[', body.read());
+        Assert.assertEquals(BODY.substring(1), StreamUtils.copyToString(body, StandardCharsets.UTF_8));
+        Assert.assertEquals(-1, body.read());
+        Assert.assertTrue(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+
+        ResponseCompression compression = ResponseCompressionInterceptor.pollCompression();
+        Assert.assertEquals(ResponseCompression.IDENTITY, compression.getEncoding());
+        Assert.assertFalse(compression.isCompressed());
+        Assert.assertEquals(BODY.length(), compression.getWireBytes());
+        Assert.assertEquals(0, compression.getDecodedBytes());
+        Assert.assertEquals(1, new ResponseCompression("gzip").getRatio(), 0);
+    }
+
+    @Test
+    public void shouldNotDecodeUnsupportedEncoding() throws IOException {
+        ClientHttpResponse response = intercept(BODY.getBytes(StandardCharsets.UTF_8), "br");
+
+        Assert.assertEquals(BODY, StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8));
+        Assert.assertFalse(ResponseCompressionInterceptor.pollCompression().isCompressed());
+    }
+
+    private static ClientHttpResponse intercept(byte[] wire, String encoding) throws IOException {
+        MockClientHttpResponse response = new MockClientHttpResponse(wire, HttpStatus.OK);
+        response.getHeaders().setContentLength(wire.length);
+        if (encoding != null) {
+            response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        return ResponseCompressionInterceptor.INSTANCE.intercept(new MockClientHttpRequest(HttpMethod.GET,
+                URI.create("http://localhost/users")), new byte[0], (request, body) -> response);
+    }
+}
@@ -0,0 +1,29 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class RestTemplateConfigurerTest {
+
+    @Test
+    public void shouldConfigureOnceUnderConcurrency() {
+        RestTemplate restTemplate = new RestTemplate();
+        Assert.assertFalse(RestTemplateConfigurer.isConfigured(restTemplate));
+
+        List<CompletableFuture<RestTemplate>> configurations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            configurations.add(CompletableFuture.supplyAsync(() -> RestTemplateConfigurer.configure(restTemplate)));
+        }
+        configurations.forEach(configuration -> Assert.assertSame(restTemplate, configuration.join()));
+
+        Assert.assertTrue(RestTemplateConfigurer.isConfigured(restTemplate));
+        Assert.assertEquals(2, restTemplate.getInterceptors().size());
+        Assert.assertTrue(restTemplate.getInterceptors().contains(ResponseTimingInterceptor.INSTANCE));
+        Assert.assertTrue(restTemplate.getInterceptors().contains(ResponseCompressionInterceptor.INSTANCE));
+    }
+}
@@ -0,0 +1,45 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+public class SpooledResponseBodyTest {
+
+    static final String BODY = "{\"firstName\":\"Tony\",\"lastName\":\"Stark\"}";
+
+    @Test
+    public void shouldKeepSmallBodyInMemory() throws IOException {
+        SpooledResponseBody body = SpooledResponseBody.read(stream(BODY), 1024);
+
+        Assert.assertFalse(body.isSpilled());
+        Assert.assertEquals(BODY.length(), body.size());
+        Assert.assertEquals(BODY, body.asString(StandardCharsets.UTF_8));
+        body.close();
+    }
+
+    @Test
+    public void shouldSpillBigBodyToFile() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            builder.append(BODY);
+        }
+        SpooledResponseBody body = SpooledResponseBody.read(stream(builder.toString()), 16);
+
+        Assert.assertTrue(body.isSpilled());
+        Assert.assertEquals(builder.length(), body.size());
+        try (InputStream in = body.openStream()) {
+            Assert.assertEquals('{', in.read());
+        }
+        Assert.assertEquals(builder.toString(), body.asString(StandardCharsets.UTF_8));
+        body.close();
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+public class TransportStatsTest {
+
+    TransportStats stats = new TransportStats();
+
+    @Test
+    public void shouldCountConnectionsAndStreams() {
+        stats.connectionOpened(InetSocketAddress.createUnresolved("localhost", 8080));
+        stats.connectionOpened(null);
+
+        TransportStats.OriginStats first = stats.streamOpened(URI.create("http://localhost:8080/users"));
+        TransportStats.OriginStats second = stats.streamOpened(URI.create("http://localhost:8080/users/1"));
+        first.streamClosed();
+        stats.streamOpened(URI.create("http://localhost:8080/users/2")).streamClosed();
+        second.streamClosed();
+
+        TransportStats.OriginStats originStats = stats.getStats("localhost:8080");
+        Assert.assertSame(first, originStats);
+        Assert.assertEquals(1, originStats.getConnections());
+        Assert.assertEquals(3, originStats.getStreams());
+        Assert.assertEquals(0, originStats.getActiveStreams());
+        Assert.assertEquals(2, originStats.getMaxConcurrentStreams());
+        Assert.assertEquals(3, originStats.getStreamsPerConnection(), 0);
+        Assert.assertTrue(stats.toString().contains("localhost:8080"));
+
+        stats.clear();
+        Assert.assertTrue(stats.getOrigins().isEmpty());
+    }
+
+    @Test
+    public void shouldUseDefaultPorts() {
+        Assert.assertEquals("localhost:80", TransportStats.getOrigin(URI.create("http://localhost/users")));
+        Assert.assertEquals("localhost:443", TransportStats.getOrigin(URI.create("https://localhost/users")));
+        Assert.assertEquals(0, stats.streamOpened(URI.create("https://localhost")).getStreamsPerConnection(), 0);
+    }
+
+    @Test
+    public void shouldCountStreamsOfNonBlockingEngine() {
+        WireMockServer server = new WireMockServer(wireMockConfig().dynamicPort());
+        server.start();
+        try {
+            server.stubFor(get(urlEqualTo("/users")).willReturn(aResponse().withStatus(200).withBody("[]")));
+
+            WebClientRequestEngine engine = new WebClientRequestEngine(HttpTransport.H2C);
+            URI uri = URI.create("http://localhost:" + server.port() + "/users");
+            CompletableFuture<?>[] responses = new CompletableFuture<?>[10];
+            for (int i = 0; i < responses.length; i++) {
+                responses[i] = engine.exchange(new RestTemplate(), uri, HttpMethod.GET, HttpEntity.EMPTY);
+            }
+            CompletableFuture.allOf(responses).join();
+
+            TransportStats.OriginStats originStats = engine.getStats().getStats(TransportStats.getOrigin(uri));
+            Assert.assertEquals(10, originStats.getStreams());
+            Assert.assertEquals(0, originStats.getActiveStreams());
+            Assert.assertTrue(originStats.getConnections() >= 1);
+            Assert.assertTrue(originStats.getConnections() <= 10);
+        } finally {
+            server.stop();
+        }
+    }
+}
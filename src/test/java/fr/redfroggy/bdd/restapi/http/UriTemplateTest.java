@@ -0,0 +1,42 @@
+package fr.redfroggy.bdd.restapi.http;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+public class UriTemplateTest {
+
+    @Test
+    public void shouldExpandVariables() {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", 1);
+        values.put("role", "admin");
+
+        UriTemplate template = UriTemplate.compile("/users/{id}/roles/{ role }?sort=name");
+
+        Assert.assertTrue(template.hasVariables());
+        Assert.assertEquals(Arrays.asList("id", "role"), template.getVariableNames());
+        Assert.assertEquals("/users/1/roles/admin?sort=name", template.expand(values::get));
+        Assert.assertEquals("/users/{id}/roles/{ role }?sort=name", template.toString());
+        Assert.assertSame(template, UriTemplate.compile(template.getSource()));
+        Assert.assertNotNull(UriTemplate.getCache().get(template.getSource(), UriTemplate::parse));
+    }
+
+    @Test
+    public void shouldKeepResourceWithoutVariables() {
+        UriTemplate template = UriTemplate.parse("/users/{id");
+
+        Assert.assertFalse(template.hasVariables());
+        Assert.assertEquals(Collections.emptyList(), template.getVariableNames());
+        Assert.assertEquals("/users/{id", template.expand(name -> null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMissingValues() {
+        UriTemplate.parse("/users/{id}").expand(name -> null);
+    }
+}
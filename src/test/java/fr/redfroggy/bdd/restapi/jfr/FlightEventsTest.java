@@ -0,0 +1,50 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FlightEventsTest {
+
+    @Test
+    public void shouldCreateFlightRecorderEvents() {
+        FlightEvents events = FlightEvents.shared();
+
+        Assert.assertTrue(events.isAvailable());
+        Assert.assertSame(events, FlightEvents.shared());
+        Assert.assertTrue(events.jsonParse() instanceof JsonParseEvent);
+        Assert.assertTrue(events.httpExchange() instanceof HttpExchangeEvent);
+        Assert.assertTrue(events.scopeSubstitution() instanceof ScopeSubstitutionEvent);
+    }
+
+    @Test
+    public void shouldCreateNoOpEventsWithoutFlightRecorder() {
+        FlightEvents events = new FlightEvents(FlightEvents.isAvailable("jdk.jfr.Missing"));
+
+        Assert.assertFalse(events.isAvailable());
+        Assert.assertSame(FlightEvents.NO_OP_EVENT, events.jsonParse());
+        Assert.assertSame(FlightEvents.NO_OP_EVENT, events.httpExchange());
+        Assert.assertSame(FlightEvents.NO_OP_EVENT, events.scopeSubstitution());
+    }
+
+    @Test
+    public void shouldIgnoreNoOpEvents() {
+        FlightEvents.NoOpEvent event = FlightEvents.NO_OP_EVENT;
+        event.begin();
+        event.setSource("request");
+        event.setSize(10);
+        event.setStreamed(true);
+        event.setMethod("GET");
+        event.setResource("/users/{id}");
+        event.setUri("/users/1");
+        event.setStatus(200);
+        event.setResponseBytes(10);
+        event.setFirstByteNanos(-1);
+        event.setVariables(1);
+        event.setLength(10);
+        event.setJsonPath(true);
+        event.end();
+        event.commit();
+
+        Assert.assertFalse(event.shouldCommit());
+    }
+}
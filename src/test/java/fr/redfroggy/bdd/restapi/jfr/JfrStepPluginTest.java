@@ -0,0 +1,78 @@
+package fr.redfroggy.bdd.restapi.jfr;
+
+import io.cucumber.core.cli.Main;
+import io.cucumber.plugin.event.EventHandler;
+import io.cucumber.plugin.event.EventPublisher;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class JfrStepPluginTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRecordSteps() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("steps.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(StepEvent.class);
+            recording.start();
+            byte status = Main.run(new String[] {"--publish-quiet", "--glue", "fr.redfroggy.bdd.restapi.shard.steps",
+                    "--object-factory", "io.cucumber.core.backend.DefaultObjectFactory", "--plugin",
+                    JfrStepPlugin.class.getName(), "src/test/resources/shard/fast.feature:3:10"},
+                    Thread.currentThread().getContextClassLoader());
+            recording.stop();
+            recording.dump(file);
+            Assert.assertEquals(1, status);
+        }
+
+        List<RecordedEvent> steps = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> "fr.redfroggy.bdd.restapi.Step".equals(event.getEventType().getName()))
+                .collect(Collectors.toList());
+        Assert.assertEquals(2, steps.size());
+        Assert.assertEquals("Given I wait 10 ms", steps.get(0).getString("step"));
+        Assert.assertEquals("Wait short", steps.get(0).getString("scenario"));
+        Assert.assertTrue(steps.get(0).getString("feature").endsWith("fast.feature"));
+        Assert.assertEquals("PASSED", steps.get(0).getString("status"));
+        Assert.assertEquals("FAILED", steps.get(1).getString("status"));
+        Assert.assertTrue(steps.get(0).getDuration().toMillis() >= 10);
+    }
+
+    @Test
+    public void shouldNotListenWithoutFlightRecorder() {
+        List<Class<?>> handledEvents = new ArrayList<>();
+        new JfrStepPlugin(new FlightEvents(false)).setEventPublisher(new EventPublisher() {
+            @Override
+            public <T> void registerHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+                handledEvents.add(eventType);
+            }
+
+            @Override
+            public <T> void removeHandlerFor(Class<T> eventType, EventHandler<T> handler) {
+            }
+        });
+
+        Assert.assertTrue(handledEvents.isEmpty());
+    }
+
+    @Test
+    public void shouldNotRecordDisabledSteps() {
+        byte status = Main.run(new String[] {"--publish-quiet", "--glue", "fr.redfroggy.bdd.restapi.shard.steps",
+                "--object-factory", "io.cucumber.core.backend.DefaultObjectFactory", "--plugin",
+                JfrStepPlugin.class.getName(), "src/test/resources/shard/fast.feature:3"},
+                Thread.currentThread().getContextClassLoader());
+
+        Assert.assertEquals(0, status);
+    }
+}
@@ -0,0 +1,63 @@
+package fr.redfroggy.bdd.restapi.json;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class JsonValueMatchersTest {
+
+    @Test
+    public void shouldMatchScalarValues() {
+        assertEqual("Tony", "Tony");
+        assertEqual(40, "40");
+        assertEqual(10000000000L, "10000000000");
+        assertEqual(1.5d, "1.5");
+        assertEqual(true, "true");
+        assertEqual(new BigDecimal("1.50"), "1.5");
+        assertEqual(null, "null");
+        assertEqual(1.5f, "1.5");
+        assertNotEqual(40, "41");
+        assertNotEqual(null, "Tony");
+    }
+
+    @Test
+    public void shouldMatchJsonValues() {
+        assertEqual(Arrays.asList("43233333", "45654345"), "[\"43233333\", \"45654345\"]");
+        assertEqual(JsonPath.parse("{\"id\":\"1\"}").json(), "{\"id\": \"1\"}");
+        assertEqual(Collections.singletonMap("id", 1), "{\"id\": 1}");
+        assertNotEqual(Collections.singletonList("43233333"), "[]");
+    }
+
+    @Test
+    public void shouldMatchTypesWithoutValueOf() {
+        assertEqual(new StringBuilder("Tony"), "Tony");
+        assertEqual('T', "T");
+        assertNotEqual(new StringBuilder("Tony"), "Bruce");
+    }
+
+    @Test
+    public void shouldResolveMatcherOnce() {
+        Assert.assertSame(JsonValueMatchers.INTEGER, JsonValueMatchers.forValue(1));
+        Assert.assertSame(JsonValueMatchers.forValue(1.5f), JsonValueMatchers.forValue(2.5f));
+        Assert.assertSame(JsonValueMatchers.JSON, JsonValueMatchers.forValue(Collections.emptyList()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidValue() {
+        JsonValueMatchers.forValue(1.5f).parse("Tony");
+    }
+
+    private static void assertEqual(Object actual, String expected) {
+        JsonValueMatcher matcher = JsonValueMatchers.forValue(actual);
+        Assert.assertTrue(matcher.matches(actual, matcher.parse(expected)));
+    }
+
+    private static void assertNotEqual(Object actual, String expected) {
+        JsonValueMatcher matcher = JsonValueMatchers.forValue(actual);
+        Assert.assertFalse(matcher.matches(actual, matcher.parse(expected)));
+    }
+}
@@ -0,0 +1,77 @@
+package fr.redfroggy.bdd.restapi.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jayway.jsonpath.PathNotFoundException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class StreamingJsonPathTest {
+
+    static final String USERS = "[{\"id\":\"1\",\"age\":40,\"relatedTo\":{\"id\":\"2\"},\"sessionIds\":[\"4323\",\"4565\"]},"
+            + "{\"id\":\"2\",\"age\":50,\"relatedTo\":null,\"sessionIds\":[]}]";
+
+    ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    public void shouldReadDefinitePaths() throws IOException {
+        Assert.assertEquals("1", read("$.[0].id"));
+        Assert.assertEquals(50, read("$[1].age"));
+        Assert.assertEquals("2", read("$[0]['relatedTo'].id"));
+        Assert.assertEquals("4565", read("$.[0].sessionIds.[1]"));
+        Assert.assertEquals(Arrays.asList("4323", "4565"), read("$[0].sessionIds"));
+        Assert.assertEquals(Collections.emptyList(), read("$[1].sessionIds"));
+        Assert.assertEquals(Collections.singletonMap("id", "2"), read("$[0].relatedTo"));
+        Assert.assertNull(read("$[1].relatedTo"));
+        Assert.assertEquals(2, ((java.util.List<?>) read("$")).size());
+    }
+
+    @Test
+    public void shouldRejectUnsupportedPaths() {
+        for (String path : new String[] {"users", "$..id", "$[*].id", "$.*", "$[?(@.id == '1')]", "$[0:2]",
+                "$[0", "$['a','b']", "$.a b", "$x"}) {
+            Assert.assertFalse(path, StreamingJsonPath.compile(path).isSupported());
+        }
+        Assert.assertTrue(StreamingJsonPath.compile("$.users[0].name").isSupported());
+    }
+
+    @Test(expected = PathNotFoundException.class)
+    public void shouldFailOnMissingProperty() throws IOException {
+        read("$[0].unknown");
+    }
+
+    @Test(expected = PathNotFoundException.class)
+    public void shouldFailOnMissingIndex() throws IOException {
+        read("$[4].id");
+    }
+
+    @Test(expected = PathNotFoundException.class)
+    public void shouldFailOnTypeMismatch() throws IOException {
+        read("$.id");
+    }
+
+    @Test(expected = PathNotFoundException.class)
+    public void shouldFailOnIndexOfObject() throws IOException {
+        read("$[0][0]");
+    }
+
+    @Test(expected = PathNotFoundException.class)
+    public void shouldFailOnEmptyDocument() throws IOException {
+        StreamingJsonPath.compile("$").read(new ByteArrayInputStream(new byte[0]), objectMapper);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailOnUnsupportedPath() throws IOException {
+        read("$..id");
+    }
+
+    private Object read(String path) throws IOException {
+        return StreamingJsonPath.compile(path)
+                .read(new ByteArrayInputStream(USERS.getBytes(StandardCharsets.UTF_8)), objectMapper);
+    }
+}
@@ -0,0 +1,52 @@
+package fr.redfroggy.bdd.restapi.load;
+
+import fr.redfroggy.bdd.restapi.metrics.LatencyHistogram;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+public class LoadTestRunnerTest {
+
+    @Test
+    public void shouldReplayFeatureWithVirtualUsers() throws InterruptedException {
+        LoadTestOptions options = LoadTestOptions.fromArgs("--users", "2", "--ramp-up", "1", "--duration", "1",
+                "--glue", "fr.redfroggy.bdd.restapi.glue", "--name", "Get wrong user", "--tags", "not @ignored",
+                "src/test/resources/load/users-load.feature");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(output));
+        LoadTestReport report;
+        try {
+            report = new LoadTestRunner(options).run();
+        } finally {
+            System.setOut(out);
+        }
+
+        Assert.assertTrue(report.getIterations() > 0);
+        Assert.assertEquals(0, report.getFailedIterations());
+        Assert.assertTrue(report.getElapsedNanos() > 0);
+        // The iterations don't print any progress nor summary
+        Assert.assertEquals("", output.toString());
+
+        LatencyHistogram histogram = report.getLatencies().get("GET /users/24333");
+        Assert.assertEquals(report.getIterations(), histogram.getCount());
+        Assert.assertTrue(report.getThroughput("GET /users/24333") > 0);
+        Assert.assertEquals(0, report.getThroughput("GET /unknown"), 0);
+        Assert.assertTrue(report.toString().contains("GET /users/24333"));
+    }
+
+    @Test
+    public void shouldCountFailedIterations() throws InterruptedException {
+        LoadTestOptions options = LoadTestOptions.fromArgs("--users", "1", "--duration", "1",
+                "--glue", "fr.redfroggy.bdd.restapi.glue", "--name", "Expect wrong user to exist",
+                "src/test/resources/load/users-load.feature");
+
+        LoadTestReport report = new LoadTestRunner(options).run();
+
+        Assert.assertTrue(report.getIterations() > 0);
+        Assert.assertEquals(report.getIterations(), report.getFailedIterations());
+    }
+}
@@ -0,0 +1,49 @@
+package fr.redfroggy.bdd.restapi.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+    LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void shouldComputePercentiles() {
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        Assert.assertEquals(1000, histogram.getCount());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), histogram.getMaxNanos());
+        Assert.assertEquals(500, histogram.getPercentileMillis(50), 10);
+        Assert.assertEquals(950, histogram.getPercentileMillis(95), 20);
+        Assert.assertEquals(990, histogram.getPercentileMillis(99), 20);
+        Assert.assertEquals(1000, histogram.getPercentileMillis(100), 0);
+        Assert.assertEquals(500.5, LatencyHistogram.toMillis((long) histogram.getMeanNanos()), 0.01);
+    }
+
+    @Test
+    public void shouldHandleEmptyAndExtremeValues() {
+        Assert.assertEquals(0, histogram.getPercentileNanos(99));
+        Assert.assertEquals(0, histogram.getMeanNanos(), 0);
+
+        histogram.record(-1);
+        histogram.record(100);
+        histogram.record(Long.MAX_VALUE);
+
+        Assert.assertEquals(0, histogram.getPercentileNanos(1));
+        Assert.assertEquals(100, histogram.getPercentileNanos(50));
+        Assert.assertEquals(Long.MAX_VALUE, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void shouldMapBucketsContinuously() {
+        for (long value : new long[] {0, 127, 128, 1000, 123456789L, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.bucketIndex(value);
+            Assert.assertTrue(LatencyHistogram.highestValue(index) >= value);
+            Assert.assertTrue(index == 0 || LatencyHistogram.highestValue(index - 1) < value);
+        }
+    }
+}
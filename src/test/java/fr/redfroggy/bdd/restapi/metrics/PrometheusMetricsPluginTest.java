@@ -0,0 +1,38 @@
+package fr.redfroggy.bdd.restapi.metrics;
+
+import io.cucumber.core.cli.Main;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class PrometheusMetricsPluginTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldWriteMetricsOnceRunIsFinished() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("cucumber.prom");
+
+        byte status = Main.run(new String[] {"--publish-quiet", "--glue", "fr.redfroggy.bdd.restapi.shard.steps",
+                "--object-factory", "io.cucumber.core.backend.DefaultObjectFactory", "--plugin",
+                PrometheusMetricsPlugin.class.getName() + ":" + file, "src/test/resources/shard/fast.feature"},
+                Thread.currentThread().getContextClassLoader());
+
+        Assert.assertEquals(1, status);
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        Assert.assertTrue(content.contains("status=\"passed\",step=\"^I wait (\\\\d+) ms$\","));
+        Assert.assertTrue(content.contains("status=\"failed\",step=\"^I fail$\","));
+    }
+
+    @Test
+    public void shouldUseDefaultFile() {
+        Assert.assertNotNull(new PrometheusMetricsPlugin());
+    }
+}
@@ -0,0 +1,42 @@
+package fr.redfroggy.bdd.restapi.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ResponseTimesTest {
+
+    ResponseTimes responseTimes = new ResponseTimes();
+
+    @Test
+    public void shouldComputePercentileOfLastRequests() {
+        for (int i = 1; i <= 10; i++) {
+            responseTimes.record("/users", i * 100L);
+        }
+
+        Assert.assertArrayEquals(new long[] {800, 900, 1000}, responseTimes.getLast("/users", 3));
+        Assert.assertEquals(1000, responseTimes.getPercentileNanos("/users", 3, 95));
+        Assert.assertEquals(500, responseTimes.getPercentileNanos("/users", 10, 50));
+        Assert.assertEquals(100, responseTimes.getPercentileNanos("/users", 10, 0));
+        Assert.assertEquals(10, responseTimes.getHistogram("/users").getCount());
+        Assert.assertEquals(10, responseTimes.getLast("/users", 20).length);
+    }
+
+    @Test
+    public void shouldKeepMostRecentRequests() {
+        for (int i = 0; i < ResponseTimes.WINDOW_SIZE + 2; i++) {
+            responseTimes.record("/users", i);
+        }
+
+        long[] last = responseTimes.getLast("/users", ResponseTimes.WINDOW_SIZE + 2);
+        Assert.assertEquals(ResponseTimes.WINDOW_SIZE, last.length);
+        Assert.assertEquals(2, last[0]);
+        Assert.assertEquals(ResponseTimes.WINDOW_SIZE + 1, last[last.length - 1]);
+    }
+
+    @Test
+    public void shouldHandleUnknownEndpoint() {
+        Assert.assertNull(responseTimes.getHistogram("/unknown"));
+        Assert.assertEquals(0, responseTimes.getLast("/unknown", 5).length);
+        Assert.assertEquals(0, responseTimes.getPercentileNanos("/unknown", 5, 95));
+    }
+}
@@ -0,0 +1,68 @@
+package fr.redfroggy.bdd.restapi.metrics;
+
+import fr.redfroggy.bdd.restapi.http.HttpConnectionPool;
+import fr.redfroggy.bdd.restapi.http.HttpExchange;
+import fr.redfroggy.bdd.restapi.scope.FeatureScopes;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpMethod;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class SuiteMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    SuiteMetrics metrics = new SuiteMetrics(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT),
+            new HttpConnectionPool(HttpConnectionPool.Settings.fromSystemProperties()));
+
+    @Test
+    public void shouldWriteMetricsFile() throws IOException {
+        metrics.recordExchange(new HttpExchange(HttpMethod.GET, "/users", URI.create("http://localhost/users"), 200,
+                5_000_000));
+        metrics.recordExchange(new HttpExchange(HttpMethod.GET, "/users", URI.create("http://localhost/users"), 200,
+                15_000_000));
+        metrics.recordStep("^http response status should be (\\d+)$", "passed");
+        metrics.recordStep("^http response status should be (\\d+)$", "failed");
+
+        Path file = folder.getRoot().toPath().resolve("metrics/cucumber.prom");
+        metrics.write(file);
+
+        String content = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+        Assert.assertTrue(content.contains("cucumber_restapi_http_requests_seconds_count"
+                + "{endpoint=\"/users\",method=\"GET\",status=\"200\",} 2.0"));
+        Assert.assertTrue(content.contains("cucumber_restapi_http_requests_seconds{endpoint=\"/users\""));
+        Assert.assertTrue(content.contains("cucumber_restapi_steps_total"
+                + "{status=\"failed\",step=\"^http response status should be (\\\\d+)$\",} 1.0"));
+        Assert.assertTrue(content.contains("cucumber_restapi_http_pool_connections{state=\"leased\",} 0.0"));
+        Assert.assertFalse(Files.exists(file.resolveSibling("cucumber.prom.tmp")));
+        Assert.assertEquals(metrics.scrape(), metrics.getRegistry().scrape());
+    }
+
+    @Test
+    public void shouldMeasureFeatureScopes() {
+        FeatureScopes.runIsolated(() -> {
+            FeatureScopes.get("users.feature").getJsonPaths().put("id", "1");
+            FeatureScopes.get("users.feature").getHeaders().put("token", "abc");
+
+            Assert.assertTrue(metrics.scrape().contains("cucumber_restapi_scope_features "));
+            Assert.assertTrue(FeatureScopes.size() >= 1);
+            Assert.assertTrue(FeatureScopes.getValueCount() >= 2);
+        });
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void shouldFailOnUnwritableFile() throws IOException {
+        metrics.write(folder.newFile("file").toPath().resolve("cucumber.prom"));
+    }
+}
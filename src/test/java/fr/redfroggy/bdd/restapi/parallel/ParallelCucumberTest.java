@@ -0,0 +1,11 @@
+package fr.redfroggy.bdd.restapi.parallel;
+
+import io.cucumber.junit.platform.engine.Cucumber;
+
+/**
+ * Gherkin tests run in parallel by the JUnit Platform engine (mvn test -Pparallel)
+ * - features: .feature files of this package, their scenarios must not depend on each other
+ * - glue and thread pool: see junit-platform.properties
+ */
+@Cucumber
+public final class ParallelCucumberTest {}
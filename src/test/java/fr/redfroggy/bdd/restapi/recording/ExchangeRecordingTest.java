@@ -0,0 +1,212 @@
+package fr.redfroggy.bdd.restapi.recording;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ExchangeRecordingTest {
+
+    static final HttpHeaders NO_HEADERS = new HttpHeaders();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldReplayRecordedExchanges() {
+        Path directory = folder.getRoot().toPath().resolve("recordings");
+        ExchangeRecording recording = ExchangeRecording.create(directory);
+        recording.record(HttpMethod.GET, URI.create("http://localhost:8080/users"), NO_HEADERS, null,
+                ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body("[]"));
+        recording.record(HttpMethod.POST, URI.create("http://localhost:8080/users"), NO_HEADERS,
+                Collections.singletonMap("id", "1"), ResponseEntity.status(201).build());
+        recording.record(HttpMethod.GET, URI.create("http://localhost:8080/users"), NO_HEADERS, null,
+                ResponseEntity.ok("[{\"id\":\"1\"}]"));
+        Assert.assertEquals(3, recording.size());
+
+        ExchangeRecording replayed = ExchangeRecording.open(directory);
+        Assert.assertEquals(3, replayed.size());
+        Assert.assertEquals(directory, replayed.getDirectory());
+
+        // The server address is ignored
+        String users = replayed.getKey(HttpMethod.GET, URI.create("http://127.0.0.1:9090/users"), NO_HEADERS, null);
+        ResponseEntity<String> first = replayed.replay(users, 0);
+        Assert.assertEquals(200, first.getStatusCodeValue());
+        Assert.assertEquals("[]", first.getBody());
+        Assert.assertEquals(MediaType.APPLICATION_JSON, first.getHeaders().getContentType());
+
+        ResponseEntity<String> created = replayed.replay(replayed.getKey(HttpMethod.POST, URI.create("/users"),
+                NO_HEADERS, Collections.singletonMap("id", "1")), 0);
+        Assert.assertEquals(201, created.getStatusCodeValue());
+        Assert.assertNull(created.getBody());
+
+        // Responses are replayed in the recording order, the last one once they have all been replayed
+        for (int occurrence = 1; occurrence < 3; occurrence++) {
+            Assert.assertEquals("[{\"id\":\"1\"}]", replayed.replay(users, occurrence).getBody());
+        }
+
+        Assert.assertNull(replayed.replay(replayed.getKey(HttpMethod.POST, URI.create("/users"), NO_HEADERS,
+                Collections.singletonMap("id", "2")), 0));
+        Assert.assertNull(replayed.replay(replayed.getKey(HttpMethod.DELETE, URI.create("/users"), NO_HEADERS, null),
+                0));
+    }
+
+    @Test
+    public void shouldIdentifyRequests() {
+        ExchangeRecording recording = ExchangeRecording.create(folder.getRoot().toPath());
+
+        Assert.assertEquals("GET /users?page=1", recording.getKey(HttpMethod.GET,
+                URI.create("http://localhost:8080/users?page=1"), NO_HEADERS, null));
+        String key = recording.getKey(HttpMethod.PUT, URI.create("/users/1"), NO_HEADERS, "{\"id\":\"1\"}");
+        Assert.assertTrue(key.matches("PUT /users/1 [0-9a-f]{16}"));
+        Assert.assertEquals(key, recording.getKey(HttpMethod.PUT, URI.create("/users/1"), NO_HEADERS,
+                Collections.singletonMap("id", "1")));
+        Assert.assertEquals(key, recording.getKey(HttpMethod.PUT, URI.create("/users/1"), NO_HEADERS,
+                "{\"id\":\"1\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void shouldIdentifyRequestsByKeyHeaders() {
+        ExchangeRecording recording = ExchangeRecording.create(folder.getRoot().toPath());
+        Assert.assertEquals(Arrays.asList(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT), recording.getKeyHeaders());
+
+        HttpHeaders tstark = new HttpHeaders();
+        tstark.setBasicAuth("tstark", "marvel");
+        tstark.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        tstark.set("X-Request-Id", "1");
+        HttpHeaders bwayne = new HttpHeaders();
+        bwayne.setBasicAuth("bwayne", "marvel");
+        bwayne.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+        bwayne.set("X-Request-Id", "1");
+        URI uri = URI.create("/users/me");
+
+        String key = recording.getKey(HttpMethod.GET, uri, tstark, null);
+        Assert.assertTrue(key.matches("GET /users/me authorization=[0-9a-f]{16} accept=[0-9a-f]{16}"));
+        Assert.assertNotEquals(key, recording.getKey(HttpMethod.GET, uri, bwayne, null));
+
+        // The other headers are ignored
+        tstark.set("X-Request-Id", "2");
+        Assert.assertEquals(key, recording.getKey(HttpMethod.GET, uri, tstark, null));
+
+        ExchangeRecording headerless = ExchangeRecording.create(folder.getRoot().toPath(), Collections.emptyList());
+        Assert.assertEquals("GET /users/me", headerless.getKey(HttpMethod.GET, uri, tstark, null));
+    }
+
+    @Test
+    public void shouldReadKeyHeadersFromSystemProperties() {
+        System.setProperty(RecordingMode.HEADERS_PROPERTY, " Accept , X-Tenant ");
+        try {
+            Assert.assertEquals(Arrays.asList("Accept", "X-Tenant"),
+                    ExchangeRecording.keyHeadersFromSystemProperties());
+            System.setProperty(RecordingMode.HEADERS_PROPERTY, "");
+            Assert.assertEquals(Collections.emptyList(), ExchangeRecording.keyHeadersFromSystemProperties());
+        } finally {
+            System.clearProperty(RecordingMode.HEADERS_PROPERTY);
+        }
+    }
+
+    @Test
+    public void shouldReplaceExistingRecording() {
+        Path directory = folder.getRoot().toPath();
+        ExchangeRecording.create(directory).record(HttpMethod.GET, URI.create("/users"), NO_HEADERS, null,
+                ResponseEntity.ok("[]"));
+
+        ExchangeRecording.create(directory);
+
+        Assert.assertEquals(0, ExchangeRecording.open(directory).size());
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void shouldRejectMissingRecording() {
+        ExchangeRecording.open(folder.getRoot().toPath().resolve("missing"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnserializableBody() {
+        ExchangeRecording.create(folder.getRoot().toPath()).getKey(HttpMethod.POST, URI.create("/users"),
+                NO_HEADERS, new Object());
+    }
+
+    @Test
+    public void shouldReplayLargeBodiesFromMappedFile() {
+        Path directory = folder.getRoot().toPath();
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 20000; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"id\":\"").append(i).append("\",\"name\":\"Zo\u00e9\"}");
+        }
+        String largeBody = body.append(']').toString();
+        try (ExchangeRecording recording = ExchangeRecording.create(directory)) {
+            recording.record(HttpMethod.GET, URI.create("/users"), NO_HEADERS, null, ResponseEntity.ok(largeBody));
+            recording.record(HttpMethod.GET, URI.create("/users/1"), NO_HEADERS, null,
+                    ResponseEntity.notFound().build());
+            Assert.assertTrue(recording.getDataSize() > largeBody.length());
+        }
+
+        try (ExchangeRecording replayed = ExchangeRecording.open(directory)) {
+            Assert.assertEquals(largeBody, replayed.replay(replayed.getKey(HttpMethod.GET, URI.create("/users"),
+                    NO_HEADERS, null), 0).getBody());
+            Assert.assertEquals(404, replayed.replay(replayed.getKey(HttpMethod.GET, URI.create("/users/1"),
+                    NO_HEADERS, null), 0).getStatusCodeValue());
+        }
+    }
+
+    @Test
+    public void shouldKeepResponsesInSingleSegment() {
+        Path directory = folder.getRoot().toPath();
+        // Each response is encoded in 16 bytes: status, headers count, body length and 4 bytes of body
+        try (ExchangeRecording recording = ExchangeRecording.create(directory, Collections.emptyList(), 40)) {
+            for (int i = 0; i < 5; i++) {
+                recording.record(HttpMethod.GET, URI.create("/users/" + i), NO_HEADERS, null,
+                        ResponseEntity.ok("[" + i + ",]"));
+            }
+            // The third and fifth responses start at the next segment
+            Assert.assertEquals(96, recording.getDataSize());
+        }
+
+        try (ExchangeRecording replayed = ExchangeRecording.open(directory, Collections.emptyList(), 40)) {
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals("[" + i + ",]", replayed.replay(replayed.getKey(HttpMethod.GET,
+                        URI.create("/users/" + i), NO_HEADERS, null), 0).getBody());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectResponseLargerThanSegment() {
+        ExchangeRecording.create(folder.getRoot().toPath(), Collections.emptyList(), 16).record(HttpMethod.GET,
+                URI.create("/users"), NO_HEADERS, null, ResponseEntity.ok("[{}]!"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotRecordWhenReplaying() {
+        Path directory = folder.getRoot().toPath();
+        ExchangeRecording.create(directory).close();
+
+        ExchangeRecording.open(directory).record(HttpMethod.GET, URI.create("/users"), NO_HEADERS, null,
+                ResponseEntity.ok("[]"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotReplayWhenRecording() {
+        ExchangeRecording.create(folder.getRoot().toPath()).replay("GET /users", 0);
+    }
+
+    @Test(expected = UncheckedIOException.class)
+    public void shouldNotRecordOnceClosed() {
+        ExchangeRecording recording = ExchangeRecording.create(folder.getRoot().toPath());
+        recording.close();
+
+        recording.record(HttpMethod.GET, URI.create("/users"), NO_HEADERS, null, ResponseEntity.ok("[]"));
+    }
+}
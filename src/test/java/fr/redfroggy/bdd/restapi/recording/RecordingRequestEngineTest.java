@@ -0,0 +1,100 @@
+package fr.redfroggy.bdd.restapi.recording;
+
+import fr.redfroggy.bdd.restapi.http.EngineResponse;
+import fr.redfroggy.bdd.restapi.http.RequestEngine;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RecordingRequestEngineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRecordAndReplayExchanges() {
+        ExchangeRecording recording = ExchangeRecording.create(folder.getRoot().toPath());
+        RequestEngine server = (restTemplate, uri, method, httpEntity) ->
+                CompletableFuture.completedFuture(new EngineResponse(ResponseEntity.ok("{\"id\":\"1\"}"), -1));
+        URI uri = URI.create("http://localhost:8080/users/1");
+
+        RecordingRequestEngine recorder = new RecordingRequestEngine(server, recording, RecordingMode.RECORD);
+        Assert.assertSame(server, recorder.getEngine());
+        Assert.assertEquals(RecordingMode.RECORD, recorder.getMode());
+        recorder.exchange(null, uri, HttpMethod.GET, HttpEntity.EMPTY).join();
+        Assert.assertEquals(1, recording.size());
+
+        RequestEngine unreachable = (restTemplate, requestUri, method, httpEntity) -> {
+            throw new AssertionError("No request must be sent in replay mode");
+        };
+        RecordingRequestEngine replayer = new RecordingRequestEngine(unreachable,
+                ExchangeRecording.open(folder.getRoot().toPath()), RecordingMode.REPLAY);
+        EngineResponse response = replayer.exchange(null, uri, HttpMethod.GET, HttpEntity.EMPTY).join();
+        Assert.assertEquals("{\"id\":\"1\"}", response.getEntity().getBody());
+        Assert.assertNotEquals(-1, response.getFirstByteTime());
+
+        try {
+            replayer.exchange(null, URI.create("/users/2"), HttpMethod.GET, HttpEntity.EMPTY).join();
+            Assert.fail("Missing recording must fail");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            Assert.assertTrue(e.getCause().getMessage().contains("GET /users/2"));
+        }
+    }
+
+    @Test
+    public void shouldCountReplayedRequestsByScenario() {
+        ExchangeRecording recording = ExchangeRecording.create(folder.getRoot().toPath());
+        AtomicInteger requestCount = new AtomicInteger();
+        RequestEngine server = (restTemplate, uri, method, httpEntity) -> CompletableFuture.completedFuture(
+                new EngineResponse(ResponseEntity.ok(String.valueOf(requestCount.incrementAndGet())), -1));
+        RecordingRequestEngine recorder = new RecordingRequestEngine(server, recording, RecordingMode.RECORD);
+        recorder.exchange(null, URI.create("/users"), HttpMethod.GET, HttpEntity.EMPTY).join();
+        recorder.exchange(null, URI.create("/users"), HttpMethod.GET, HttpEntity.EMPTY).join();
+
+        ExchangeRecording replayed = ExchangeRecording.open(folder.getRoot().toPath());
+        Map<String, AtomicInteger> scenarioCounts = new ConcurrentHashMap<>();
+        Assert.assertEquals("1", replay(replayed, scenarioCounts));
+        // The counts are kept when the scenario changes of engine
+        Assert.assertEquals("2", replay(replayed, scenarioCounts));
+        // Another scenario replays from the first response
+        Assert.assertEquals("1", replay(replayed, new ConcurrentHashMap<>()));
+    }
+
+    private static String replay(ExchangeRecording recording, Map<String, AtomicInteger> replayCounts) {
+        return new RecordingRequestEngine(null, recording, RecordingMode.REPLAY, replayCounts)
+                .exchange(null, URI.create("/users"), HttpMethod.GET, HttpEntity.EMPTY).join().getEntity().getBody();
+    }
+
+    @Test
+    public void shouldReadModes() {
+        Assert.assertEquals(RecordingMode.OFF, RecordingMode.fromSystemProperties());
+        Assert.assertEquals(RecordingMode.REPLAY, RecordingMode.forName("replay"));
+        Assert.assertEquals(RecordingMode.REPLAY, RecordingMode.forName("REPLAY"));
+        Assert.assertTrue(RecordingMode.isReplay("Replay"));
+        Assert.assertFalse(RecordingMode.isReplay("rewind"));
+        Assert.assertFalse(RecordingMode.isReplay(null));
+        Assert.assertEquals("record", RecordingMode.RECORD.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownMode() {
+        RecordingMode.forName("rewind");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectOffMode() {
+        new RecordingRequestEngine(null, null, RecordingMode.OFF);
+    }
+}
@@ -0,0 +1,55 @@
+package fr.redfroggy.bdd.restapi.recording;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.mock.env.MockEnvironment;
+
+public class ReplayEnvironmentPostProcessorTest {
+
+    @Test
+    public void shouldSkipWebServerInReplayMode() {
+        MockEnvironment environment = new MockEnvironment();
+
+        postProcessor("REPLAY").postProcessEnvironment(environment, new SpringApplication());
+
+        Assert.assertEquals("none",
+                environment.getProperty(ReplayEnvironmentPostProcessor.WEB_APPLICATION_TYPE_PROPERTY));
+    }
+
+    @Test
+    public void shouldKeepWebServerOutsideReplayMode() {
+        MockEnvironment environment = new MockEnvironment();
+
+        postProcessor("record").postProcessEnvironment(environment, new SpringApplication());
+        postProcessor("rewind").postProcessEnvironment(environment, new SpringApplication());
+        new ReplayEnvironmentPostProcessor().postProcessEnvironment(environment, new SpringApplication());
+
+        Assert.assertFalse(environment.containsProperty(ReplayEnvironmentPostProcessor.WEB_APPLICATION_TYPE_PROPERTY));
+    }
+
+    @Test
+    public void shouldReadModeFromSystemPropertiesOnly() {
+        MockEnvironment environment = new MockEnvironment().withProperty(RecordingMode.MODE_PROPERTY, "replay");
+
+        postProcessor(null).postProcessEnvironment(environment, new SpringApplication());
+
+        Assert.assertFalse(environment.containsProperty(ReplayEnvironmentPostProcessor.WEB_APPLICATION_TYPE_PROPERTY));
+    }
+
+    @Test
+    public void shouldKeepConfiguredWebApplicationType() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty(ReplayEnvironmentPostProcessor.WEB_APPLICATION_TYPE_PROPERTY, "servlet");
+
+        postProcessor("replay").postProcessEnvironment(environment, new SpringApplication());
+
+        Assert.assertEquals("servlet",
+                environment.getProperty(ReplayEnvironmentPostProcessor.WEB_APPLICATION_TYPE_PROPERTY));
+        Assert.assertNull(environment.getPropertySources().get(ReplayEnvironmentPostProcessor.PROPERTY_SOURCE_NAME));
+    }
+
+    private static ReplayEnvironmentPostProcessor postProcessor(String mode) {
+        return new ReplayEnvironmentPostProcessor(name -> RecordingMode.MODE_PROPERTY.equals(name) ? mode : null);
+    }
+}
@@ -3,6 +3,8 @@ package fr.redfroggy.bdd.restapi.scope;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Collections;
+
 public class ScenarioScopeTest {
 
     ScenarioScope scenarioScope = new ScenarioScope();
@@ -11,5 +13,40 @@ public class ScenarioScopeTest {
     public void shouldBeInitialized() {
         Assert.assertNotNull(scenarioScope.getHeaders());
         Assert.assertNotNull(scenarioScope.getJsonPaths());
+        Assert.assertNotNull(scenarioScope.getResponses());
+        Assert.assertNull(scenarioScope.getParent());
+    }
+
+    @Test
+    public void shouldLookupParentScope() {
+        ScenarioScope featureScope = FeatureScopes.get("classpath:features/scope.feature");
+        featureScope.getJsonPaths().put("id", "1");
+        featureScope.getHeaders().put("token", Collections.singletonList("abc"));
+
+        ScenarioScope childScope = new ScenarioScope(featureScope);
+        childScope.getJsonPaths().put("name", "Tony");
+
+        Assert.assertSame(featureScope, FeatureScopes.get("classpath:features/scope.feature"));
+        Assert.assertEquals("1", childScope.getJsonPath("id"));
+        Assert.assertEquals("Tony", childScope.getJsonPath("name"));
+        Assert.assertEquals(Collections.singletonList("abc"), childScope.getHeader("token"));
+        Assert.assertNull(childScope.getHeader("unknown"));
+        Assert.assertNull(featureScope.getJsonPath("name"));
+
+        FeatureScopes.clear();
+        Assert.assertNotSame(featureScope, FeatureScopes.get("classpath:features/scope.feature"));
+    }
+
+    @Test
+    public void shouldIsolateFeatureScopes() {
+        ScenarioScope featureScope = FeatureScopes.get("classpath:features/isolated.feature");
+
+        FeatureScopes.runIsolated(() -> {
+            ScenarioScope isolatedScope = FeatureScopes.get("classpath:features/isolated.feature");
+            Assert.assertNotSame(featureScope, isolatedScope);
+            Assert.assertSame(isolatedScope, FeatureScopes.get("classpath:features/isolated.feature"));
+        });
+
+        Assert.assertSame(featureScope, FeatureScopes.get("classpath:features/isolated.feature"));
     }
 }
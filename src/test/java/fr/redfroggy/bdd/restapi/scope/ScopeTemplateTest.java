@@ -0,0 +1,71 @@
+package fr.redfroggy.bdd.restapi.scope;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ScopeTemplateTest {
+
+    Map<String, Object> values = new HashMap<>();
+
+    @Test
+    public void shouldRenderVariables() {
+        values.put("id", 1);
+        values.put("name", "Tony");
+
+        ScopeTemplate template = ScopeTemplate.compile("{\"id\":`$id`,\"name\":\"`$name`\",\"relatedTo\":`$id`}");
+
+        Assert.assertTrue(template.hasVariables());
+        Assert.assertEquals(3, template.getVariableCount());
+        Assert.assertEquals("{\"id\":1,\"name\":\"Tony\",\"relatedTo\":1}", template.render(values::get));
+    }
+
+    @Test
+    public void shouldKeepTextWithoutVariables() {
+        ScopeTemplate template = ScopeTemplate.parse("/users/`$id\n` and `$unclosed");
+
+        Assert.assertFalse(template.hasVariables());
+        Assert.assertEquals(template.getSource(), template.render(values::get));
+    }
+
+    @Test
+    public void shouldSkipVariableStartSpanningLines() {
+        values.put("id", 2);
+
+        Assert.assertEquals("`$a\n/users/2", ScopeTemplate.parse("`$a\n/users/`$id`").render(values::get));
+    }
+
+    @Test
+    public void shouldCacheCompiledTemplates() {
+        ScopeTemplate template = ScopeTemplate.compile("/users/`$cached`");
+
+        Assert.assertSame(template, ScopeTemplate.compile("/users/`$cached`"));
+        Assert.assertTrue(ScopeTemplate.getCache().getHitCount() > 0);
+    }
+
+    @Test
+    public void shouldNotCacheTextWithoutVariables() {
+        ScopeTemplate template = ScopeTemplate.compile("/users/uncached");
+
+        Assert.assertFalse(template.hasVariables());
+        Assert.assertEquals("/users/uncached", template.render(values::get));
+        Assert.assertNotSame(template, ScopeTemplate.compile("/users/uncached"));
+    }
+
+    @Test
+    public void shouldNotCacheLongText() {
+        values.put("id", 3);
+        StringBuilder source = new StringBuilder("`$id`");
+        while (source.length() <= ScopeTemplate.MAX_CACHED_LENGTH) {
+            source.append(' ');
+        }
+
+        ScopeTemplate template = ScopeTemplate.compile(source.toString());
+
+        Assert.assertEquals(1, template.getVariableCount());
+        Assert.assertTrue(template.render(values::get).startsWith("3 "));
+        Assert.assertNotSame(template, ScopeTemplate.compile(source.toString()));
+    }
+}
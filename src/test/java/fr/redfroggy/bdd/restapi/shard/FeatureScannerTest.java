@@ -0,0 +1,57 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class FeatureScannerTest {
+
+    @Test
+    public void shouldListScenarios() {
+        List<ShardUnit> units = FeatureScanner.scan(Collections.singletonList("src/test/resources/shard"), false);
+
+        Assert.assertEquals(Arrays.asList("src/test/resources/shard/fast.feature:3",
+                "src/test/resources/shard/fast.feature:6", "src/test/resources/shard/fast.feature:10",
+                "src/test/resources/shard/slow.feature:3", "src/test/resources/shard/slow.feature:6"),
+                units.stream().map(ShardUnit::getId).collect(Collectors.toList()));
+
+        // The examples belong to the outline unit
+        ShardUnit outline = units.get(4);
+        Assert.assertTrue(outline.contains(12));
+        Assert.assertFalse(outline.contains(3));
+        Assert.assertEquals(1, outline.getScenarioCount());
+    }
+
+    @Test
+    public void shouldListFeatures() {
+        List<ShardUnit> units = FeatureScanner.scan(
+                Collections.singletonList("src/test/resources/shard/slow.feature"), true);
+
+        Assert.assertEquals(1, units.size());
+        Assert.assertEquals("src/test/resources/shard/slow.feature", units.get(0).getId());
+        Assert.assertEquals(2, units.get(0).getScenarioCount());
+        Assert.assertTrue(units.get(0).contains(9));
+    }
+
+    @Test
+    public void shouldResolveClasspathFeatures() {
+        Assert.assertEquals(Paths.get("target/test-classes/shard").toAbsolutePath(),
+                FeatureScanner.resolve("classpath:shard"));
+        Assert.assertEquals(Paths.get("features"), FeatureScanner.resolve("features"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownClasspathFeatures() {
+        FeatureScanner.resolve("classpath:unknown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectFeaturesInJars() {
+        FeatureScanner.resolve("classpath:org/junit/Test.class");
+    }
+}
@@ -0,0 +1,44 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import io.cucumber.core.cli.Main;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+public class ScenarioTimingPluginTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRecordScenarioDurations() {
+        Path file = folder.getRoot().toPath().resolve("timings.properties");
+        ScenarioTimings previous = new ScenarioTimings();
+        previous.put("src/test/resources/shard/slow.feature", 3, 1000);
+        previous.store(file);
+
+        byte status = Main.run(new String[] {"--publish-quiet", "--glue", "fr.redfroggy.bdd.restapi.shard.steps",
+                "--object-factory", "io.cucumber.core.backend.DefaultObjectFactory", "--plugin",
+                ScenarioTimingPlugin.class.getName() + ":" + file, "src/test/resources/shard/fast.feature:3:6"},
+                Thread.currentThread().getContextClassLoader());
+
+        Assert.assertEquals(0, status);
+        ScenarioTimings timings = ScenarioTimings.load(file);
+        Assert.assertEquals(3, timings.size());
+        Assert.assertTrue(timings.get("src/test/resources/shard/fast.feature", 6) >= 20);
+        Assert.assertEquals(Long.valueOf(1000), timings.get("src/test/resources/shard/slow.feature", 3));
+    }
+
+    @Test
+    public void shouldConvertFeatureUris() {
+        Assert.assertEquals("src/test/resources/shard/fast.feature", ScenarioTimingPlugin.toFeaturePath(
+                Paths.get("src/test/resources/shard/fast.feature").toUri()));
+        Assert.assertEquals("target/test-classes/shard/fast.feature",
+                ScenarioTimingPlugin.toFeaturePath(URI.create("classpath:shard/fast.feature")));
+    }
+}
@@ -0,0 +1,49 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+
+public class ScenarioTimingsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldStoreAndLoadTimings() {
+        Path file = folder.getRoot().toPath().resolve("history/timings.properties");
+        ScenarioTimings timings = new ScenarioTimings();
+        timings.put("a.feature", 3, 120);
+        timings.put("a.feature", 8, 80);
+        timings.store(file);
+
+        ScenarioTimings loaded = ScenarioTimings.load(file);
+
+        Assert.assertEquals(2, loaded.size());
+        Assert.assertEquals(Long.valueOf(120), loaded.get("a.feature", 3));
+        Assert.assertNull(loaded.get("a.feature", 4));
+        Assert.assertNull(loaded.get("b.feature", 3));
+    }
+
+    @Test
+    public void shouldEstimateUnits() {
+        ScenarioTimings timings = ScenarioTimings.load(folder.getRoot().toPath().resolve("missing.properties"));
+        Assert.assertEquals(0, timings.size());
+        Assert.assertEquals(2 * ScenarioTimings.DEFAULT_SCENARIO_MILLIS,
+                timings.estimate(new ShardUnit("a.feature", 0, Integer.MAX_VALUE, 2)));
+
+        ScenarioTimings recorded = new ScenarioTimings();
+        recorded.put("a.feature", 3, 100);
+        recorded.put("a.feature", 8, 300);
+        timings.putAll(recorded);
+
+        Assert.assertEquals(400, timings.estimate(new ShardUnit("a.feature", 0, Integer.MAX_VALUE, 2)));
+        Assert.assertEquals(100, timings.estimate(new ShardUnit("a.feature", 3, 8, 1)));
+        // Unknown scenarios are estimated with the average duration
+        Assert.assertEquals(200, timings.estimate(new ShardUnit("a.feature", 12, Integer.MAX_VALUE, 1)));
+        Assert.assertEquals(400, timings.estimate(new ShardUnit("b.feature", 0, Integer.MAX_VALUE, 2)));
+    }
+}
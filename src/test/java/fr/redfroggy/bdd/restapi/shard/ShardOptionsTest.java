@@ -0,0 +1,84 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import fr.redfroggy.bdd.restapi.RestApiCucumberTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class ShardOptionsTest {
+
+    @Test
+    public void shouldReadArgs() {
+        ShardOptions options = ShardOptions.fromArgs("--workers", "3", "--granularity", "feature", "--timings",
+                "target/timings.properties", "--output", "target/shards", "--glue", "fr.redfroggy.bdd.restapi.glue",
+                "--tags", "not @ignored", "--object-factory", "io.cucumber.core.backend.DefaultObjectFactory",
+                "--jvm-arg", "-Dcucumber.restapi.http.engine=blocking", "--classpath", "target/classes",
+                "src/test/resources/features");
+
+        Assert.assertEquals(3, options.getWorkers());
+        Assert.assertTrue(options.isFeatureGranularity());
+        Assert.assertEquals(Paths.get("target/timings.properties"), options.getTimingsFile());
+        Assert.assertEquals(Paths.get("target/shards"), options.getOutputDirectory());
+        Assert.assertEquals(Collections.singletonList("-Dcucumber.restapi.http.engine=blocking"),
+                options.getJvmArgs());
+        Assert.assertEquals("target/classes", options.getClasspath());
+        Assert.assertEquals(Collections.singletonList("src/test/resources/features"), options.getFeatures());
+        Assert.assertEquals(Arrays.asList("--publish-quiet", "--glue", "fr.redfroggy.bdd.restapi.glue", "--tags",
+                "not @ignored", "--object-factory", "io.cucumber.core.backend.DefaultObjectFactory"),
+                options.toCucumberArgs());
+    }
+
+    @Test
+    public void shouldReadCucumberOptions() {
+        ShardOptions options = ShardOptions.fromArgs("--granularity", "scenario", "--options-class",
+                RestApiCucumberTest.class.getName());
+
+        Assert.assertFalse(options.isFeatureGranularity());
+        Assert.assertEquals(Collections.singletonList("src/test/resources/features"), options.getFeatures());
+        Assert.assertEquals(Collections.singletonList("fr.redfroggy.bdd.restapi.glue"), options.getGlue());
+        Assert.assertNull(options.getTags());
+        Assert.assertNull(options.getObjectFactory());
+        Assert.assertEquals(Arrays.asList("--publish-quiet", "--glue", "fr.redfroggy.bdd.restapi.glue"),
+                options.toCucumberArgs());
+    }
+
+    @Test
+    public void shouldReadCucumberOptionsTags() {
+        ShardOptions options = new ShardOptions().addCucumberOptions(TaggedCucumberTest.class);
+
+        Assert.assertEquals("not @ignored", options.getTags());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectClassWithoutCucumberOptions() {
+        new ShardOptions().addCucumberOptions(ShardOptionsTest.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnknownOptionsClass() {
+        ShardOptions.fromArgs("--options-class", "fr.redfroggy.bdd.restapi.Unknown");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsupportedCucumberOptions() {
+        new ShardOptions().addCucumberOptions(PartialCucumberTest.class);
+    }
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface CucumberOptions {
+        String[] features();
+    }
+
+    @CucumberOptions(features = "src/test/resources/features")
+    static final class PartialCucumberTest {
+    }
+
+    @io.cucumber.junit.CucumberOptions(features = "src/test/resources/features", tags = "not @ignored")
+    static final class TaggedCucumberTest {
+    }
+}
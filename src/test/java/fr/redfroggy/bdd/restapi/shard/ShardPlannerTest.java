@@ -0,0 +1,54 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ShardPlannerTest {
+
+    @Test
+    public void shouldBalanceUnitsWithRecordedDurations() {
+        ScenarioTimings timings = new ScenarioTimings();
+        timings.put("a.feature", 3, 800);
+        timings.put("a.feature", 6, 300);
+        timings.put("b.feature", 3, 500);
+        timings.put("b.feature", 9, 400);
+
+        List<ShardUnit> units = Arrays.asList(new ShardUnit("a.feature", 3, 6, 1),
+                new ShardUnit("a.feature", 6, Integer.MAX_VALUE, 1), new ShardUnit("b.feature", 3, 9, 1),
+                new ShardUnit("b.feature", 9, Integer.MAX_VALUE, 1));
+
+        List<Shard> shards = ShardPlanner.plan(units, timings, 2);
+
+        Assert.assertEquals(2, shards.size());
+        Assert.assertEquals(1100, shards.get(0).getEstimatedMillis());
+        Assert.assertEquals(Arrays.asList("a.feature:3", "a.feature:6"), ids(shards.get(0)));
+        Assert.assertEquals(900, shards.get(1).getEstimatedMillis());
+        Assert.assertEquals(Arrays.asList("b.feature:3", "b.feature:9"), ids(shards.get(1)));
+        Assert.assertEquals(-1, shards.get(0).getExitCode());
+        Assert.assertTrue(shards.get(0).toString().contains("2 units"));
+    }
+
+    @Test
+    public void shouldNotPlanMoreShardsThanUnits() {
+        List<Shard> shards = ShardPlanner.plan(Collections.singletonList(new ShardUnit("a.feature", 0,
+                Integer.MAX_VALUE, 2)), new ScenarioTimings(), 4);
+
+        Assert.assertEquals(1, shards.size());
+        Assert.assertEquals(2 * ScenarioTimings.DEFAULT_SCENARIO_MILLIS, shards.get(0).getEstimatedMillis());
+        Assert.assertEquals(Collections.singletonList("a.feature"), ids(shards.get(0)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidWorkers() {
+        ShardPlanner.plan(Collections.emptyList(), new ScenarioTimings(), 0);
+    }
+
+    private static List<String> ids(Shard shard) {
+        return shard.getUnits().stream().map(ShardUnit::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,77 @@
+package fr.redfroggy.bdd.restapi.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ShardRunnerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void shouldRunShardsInWorkerJvms() throws IOException, InterruptedException {
+        Path output = folder.getRoot().toPath();
+        ShardOptions options = ShardOptions.fromArgs("--workers", "2", "--timings",
+                output.resolve("timings.properties").toString(), "--output", output.toString(), "--glue",
+                "fr.redfroggy.bdd.restapi.shard.steps", "--object-factory",
+                "io.cucumber.core.backend.DefaultObjectFactory", "src/test/resources/shard");
+        ShardRunner runner = new ShardRunner(options);
+
+        List<Shard> shards = runner.run();
+
+        Assert.assertEquals(2, shards.size());
+        // The failing scenario fails its shard only
+        Assert.assertFalse(ShardRunner.isSuccessful(shards));
+        Assert.assertEquals(1, shards.stream().filter(shard -> shard.getExitCode() != 0).count());
+        Assert.assertTrue(Files.exists(output.resolve("shard-0/cucumber.log")));
+
+        JsonNode report = new ObjectMapper().readTree(runner.getReportFile().toFile());
+        Assert.assertEquals(2, report.size());
+        Assert.assertEquals(3, report.get(0).path("elements").size());
+        Assert.assertEquals(3, report.get(1).path("elements").size());
+
+        ScenarioTimings timings = ScenarioTimings.load(options.getTimingsFile());
+        // Examples are recorded by row line
+        Assert.assertEquals(6, timings.size());
+        Assert.assertTrue(timings.get("src/test/resources/shard/slow.feature", 3) >= 1000);
+
+        // The recorded durations balance the next run
+        List<Shard> planned = runner.plan();
+        Assert.assertEquals(1, planned.stream().filter(shard -> shard.getUnits().size() == 1).count());
+    }
+
+    @Test
+    public void shouldPassShardIndexToWorkers() {
+        ShardRunner runner = new ShardRunner(ShardOptions.fromArgs("--jvm-arg", "-Dserver.port=808{shard}",
+                "--jvm-arg", "-Xmx256m"));
+
+        List<String> command = runner.getWorkerCommand(new Shard(2));
+
+        Assert.assertEquals("-Dserver.port=8082", command.get(1));
+        Assert.assertEquals("-Xmx256m", command.get(2));
+        Assert.assertEquals("-D" + ShardRunner.SHARD_INDEX_PROPERTY + "=2", command.get(3));
+        Assert.assertTrue(command.get(command.size() - 1).endsWith("units.txt"));
+    }
+
+    @Test
+    public void shouldRunWithoutShards() throws IOException, InterruptedException {
+        Path output = folder.getRoot().toPath();
+        ShardRunner runner = new ShardRunner(new ShardOptions().setOutputDirectory(output)
+                .setTimingsFile(output.resolve("timings.properties")));
+
+        List<Shard> shards = runner.run();
+
+        Assert.assertTrue(shards.isEmpty());
+        Assert.assertTrue(ShardRunner.isSuccessful(shards));
+        Assert.assertEquals(0, new ObjectMapper().readTree(runner.getReportFile().toFile()).size());
+    }
+}
@@ -0,0 +1,20 @@
+package fr.redfroggy.bdd.restapi.shard.steps;
+
+import io.cucumber.java.en.Given;
+import org.junit.Assert;
+
+/**
+ * Steps of the sharded features, run without the spring context
+ */
+public class ShardStepDefinition {
+
+    @Given("^I wait (\\d+) ms$")
+    public void waitFor(long millis) throws InterruptedException {
+        Thread.sleep(millis);
+    }
+
+    @Given("^I fail$")
+    public void fail() {
+        Assert.fail("Failed on purpose");
+    }
+}
@@ -7,14 +7,15 @@ import org.springframework.web.bind.annotation.*;
 import wiremock.org.apache.commons.lang3.StringUtils;
 
 import javax.servlet.http.HttpServletRequest;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
 @RestController
 final class UserController {
 
-    private static List<UserDTO> users = new ArrayList<>();
+    // Scenarios may run in parallel
+    private static final List<UserDTO> users = new CopyOnWriteArrayList<>();
 
     @GetMapping("/users")
     public List<UserDTO> getAll(@RequestParam(value = "name", required = false) String name) {
@@ -111,8 +112,7 @@ final class UserController {
                     .notFound().build();
         }
 
-        users = users.stream().filter(u -> !currentUser.equals(u))
-                .collect(Collectors.toList());
+        users.remove(currentUser);
 
         return ResponseEntity.
                 ok().build();
@@ -13,7 +13,17 @@ Feature: Users api tests
     When I authenticate with login/password tstark/marvel
     And I HEAD /authenticated
     Then http response code should be 200
-    And I store the value of http response header Authorization as authToken in scenario scope
+    And I store the value of http response header Authorization as authToken in feature scope
+
+  Scenario: Should be authenticated with the non-blocking http engine
+    Given I use the non-blocking http engine
+    When I HEAD /authenticated
+    Then http response code should be 401
+    When I authenticate with login/password tstark/marvel
+    And I HEAD /authenticated
+    Then http response code should be 200
+    And http response header Authorization should exist
+    And http response time to first byte should be less than 10000 ms
 
   Scenario: Add tony stark user
     When I authenticate with login/password tstark/marvel
@@ -28,8 +38,8 @@ Feature: Users api tests
     And http response body path $.age should be 40
     And http response body path $.sessionIds should be ["43233333", "45654345"]
     And http response body path $.sessionIds should not be []
-    And I store the value of http body path $.id as starkUser in scenario scope
-    And I store the value of http body path $.sessionIds.[0] as firstSessionId in scenario scope
+    And I store the value of http body path $.id as starkUser in feature scope
+    And I store the value of http body path $.sessionIds.[0] as firstSessionId in feature scope
     And http value of scenario variable starkUser should be 1
 
   Scenario: Add bruce wayne user
@@ -49,6 +59,7 @@ Feature: Users api tests
     And http response body path $.sessionIds should be ["43233333"]
 
   Scenario: Update tony stark user
+    Given I enable pre-encoded http request bodies
     When I set http body to {"id":"1","firstName":"Tony","lastName":"Stark","age":"60"}
     And I PUT /users/1
     Then http response code should be 200
@@ -78,6 +89,60 @@ Feature: Users api tests
     And http response body path $.[4].id should not exist
     And http response body should contain Bruce
 
+  Scenario: Get users with response streaming
+    Given I enable http response streaming
+    When I GET /users
+    Then http response code should be 200
+    And http response body should be valid json
+    And http response body is typed as array using path $ with length 2
+    And http response body path $.[0].firstName should be Tony
+    And http response body path $[1]['lastName'] should be WAYNE
+    And http response body path $.[0].sessionIds should be ["43233333", "45654345"]
+    And http response body path $[?(@.id == '2')].firstName should be ["Bruce"]
+    And http response body path $.[4].id should not exist
+    And http response body should contain Bruce
+    When I GET /users/24333
+    Then http response code should be 404
+    And http response body path $ should not have content
+
+  Scenario: Get users with response compression
+    Given I enable http response compression
+    When I GET /users
+    Then http response code should be 200
+    And http response should be compressed
+    And http response header Content-Encoding should be gzip
+    And http response wire size should be less than 1 KB
+    And http response body is typed as array using path $ with length 2
+    And http response body path $.[0].firstName should be Tony
+    Given I enable http response streaming
+    When I GET /users/2
+    Then http response should be compressed
+    And http response body path $.lastName should be WAYNE
+
+  Scenario: Get users concurrently
+    When I send the following GET requests concurrently:
+      | tony   | /users/1     |
+      | bruce  | /users/2     |
+      | nobody | /users/24333 |
+    And I select the http response stored as tony
+    Then http response code should be 200
+    And http response body path $.firstName should be Tony
+    When I select the http response stored as bruce
+    Then http response code should be 200
+    And http response body path $.firstName should be Bruce
+    When I select the http response stored as nobody
+    Then http response code should be 404
+
+  Scenario: Get users with the non-blocking http engine
+    Given I use the non-blocking http engine
+    When I GET /users
+    Then http response code should be 200
+    And http response body is typed as array using path $ with length 2
+    And http response body path $.[1].firstName should be Bruce
+    When I GET /users/24333
+    Then http response code should be 404
+    And http response body path $ should not have content
+
   Scenario: Search for valid users
     And I set http query parameter name to bruce
     When I GET /users
@@ -114,11 +179,28 @@ Feature: Users api tests
     And http response body path $.age should be 50
 
 
+  Scenario: Get users with a uri template
+    When I GET /users/{id} with id = `$starkUser`
+    Then http response code should be 200
+    And http response body path $.firstName should be Tony
+    When I GET /users/{id} with id = 2
+    Then http response code should be 200
+    And http response body path $.firstName should be Bruce
+    And p95 response time of the last 2 requests to /users/{id} should be less than 10000 ms
+
   Scenario: Get wrong user
     When I GET /users/24333
     Then http response code should be 404
     And http response body path $ should not have content
 
+  Scenario: Check response times
+    When I GET /users/24333
+    Then http response time should be less than 10000 ms
+    And http response time to first byte should be less than 10000 ms
+    When I GET /users/24333
+    And I GET /users/24333
+    Then p95 response time of the last 3 requests to /users/24333 should be less than 10000 ms
+
   Scenario: Delete wrong user
     When I DELETE /users/3
     Then http response code should be 404
@@ -0,0 +1,40 @@
+Feature: Users api parallel tests
+
+  Background:
+    Given http baseUri is http://localhost:8080
+    And I set http headers to:
+    | Accept        | application/json  |
+    | Content-Type  | application/json  |
+
+  Scenario: Should be authenticated
+    When I HEAD /authenticated
+    Then http response code should be 401
+    When I authenticate with login/password tstark/marvel
+    And I HEAD /authenticated
+    Then http response code should be 200
+
+  Scenario: Get wrong user
+    When I GET /users/24333
+    Then http response code should be 404
+    And http response body path $ should not have content
+
+  Scenario Outline: Add, get and delete user <id>
+    When I set http body to {"id":"<id>","firstName":"<firstName>","lastName":"<lastName>","age":"<age>"}
+    And I POST /users
+    Then http response code should be 201
+    And I store the value of http body path $.id as userId in scenario scope
+    When I GET /users/`$userId`
+    Then http response code should be 200
+    And http response body path $.firstName should be <firstName>
+    And http response body path $.age should be <age>
+    When I DELETE /users/`$userId`
+    Then http response code should be 200
+    When I GET /users/`$userId`
+    Then http response code should be 404
+
+    Examples:
+      | id  | firstName | lastName  | age |
+      | 101 | Peter     | Parker    | 18  |
+      | 102 | Natasha   | Romanoff  | 35  |
+      | 103 | Steve     | Rogers    | 100 |
+      | 104 | Wanda     | Maximoff  | 30  |
@@ -0,0 +1,16 @@
+Feature: Users api load tests
+
+  Background:
+    Given http baseUri is http://localhost:8080
+    And I set http headers to:
+    | Accept        | application/json  |
+    | Content-Type  | application/json  |
+
+  Scenario: Get wrong user
+    When I GET /users/24333
+    Then http response code should be 404
+
+  @ignored
+  Scenario: Expect wrong user to exist
+    When I GET /users/24333
+    Then http response code should be 200
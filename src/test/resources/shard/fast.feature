@@ -0,0 +1,11 @@
+Feature: Fast scenarios
+
+  Scenario: Wait short
+    Given I wait 10 ms
+
+  Scenario: Wait again
+    Given I wait 20 ms
+
+  @failing
+  Scenario: Fail
+    Given I fail
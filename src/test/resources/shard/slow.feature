@@ -0,0 +1,12 @@
+Feature: Slow scenarios
+
+  Scenario: Wait long
+    Given I wait 1000 ms
+
+  Scenario Outline: Wait <millis> ms
+    Given I wait <millis> ms
+
+    Examples:
+      | millis |
+      | 50     |
+      | 100    |